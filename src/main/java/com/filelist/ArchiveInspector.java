@@ -0,0 +1,569 @@
+package com.filelist;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Classe pour lister le contenu des archives (ZIP et TAR) sans les extraire.
+ * Seuls le répertoire central ZIP ou les en-têtes TAR sont lus : les données
+ * des entrées ne sont jamais décompressées ni même parcourues.
+ */
+public class ArchiveInspector {
+    private static final int SIGNATURE_EOCD = 0x06054b50;
+    private static final int SIGNATURE_ZIP64_LOCATOR = 0x07064b50;
+    private static final int SIGNATURE_ZIP64_EOCD = 0x06064b50;
+    private static final int SIGNATURE_CENTRAL = 0x02014b50;
+    private static final int TAILLE_EOCD = 22;
+    private static final int TAILLE_ENTREE_CENTRALE = 46;
+    private static final int COMMENTAIRE_MAX = 0xFFFF;
+    private static final int TAILLE_TAMPON = 256 * 1024;
+    private static final int BLOC_TAR = 512;
+    private static final int EXTENSION_TAR_MAX = 1024 * 1024;
+    private static final int ENTREES_MAX_DEFAUT = 1000;
+
+    private static final Set<String> EXTENSIONS_ZIP = new HashSet<>(Arrays.asList(
+        "zip", "jar", "war", "ear", "apk", "docx", "xlsx", "pptx", "odt", "ods", "odp", "epub"));
+    private static final Charset CHARSET_ZIP_DEFAUT = chargerCharsetZip();
+
+    private final int nombreThreads;
+    private final int entreesMax;
+    private ScanFilter filtre = null;
+
+    public ArchiveInspector() {
+        this(Math.min(4, Runtime.getRuntime().availableProcessors()), ENTREES_MAX_DEFAUT);
+    }
+
+    /**
+     * @param nombreThreads Nombre maximal d'archives inspectées en parallèle
+     * @param entreesMax Nombre maximal d'entrées listées par archive
+     */
+    public ArchiveInspector(int nombreThreads, int entreesMax) {
+        if (nombreThreads < 1) {
+            throw new IllegalArgumentException("Le nombre de threads doit être au moins 1");
+        }
+        this.nombreThreads = nombreThreads;
+        this.entreesMax = entreesMax;
+    }
+
+    /**
+     * Définit le filtre appliqué aux entrées (taille décompressée et extension) : les entrées refusées
+     * ne sont pas listées ni comptées dans la limite d'entrées par archive (les enregistrements non lus
+     * une fois la limite atteinte sont comptés sans filtre)
+     * @param filtre Le filtre (null pour lister toutes les entrées)
+     */
+    public void setFiltre(ScanFilter filtre) {
+        this.filtre = filtre;
+    }
+
+    /**
+     * Vérifie si une entrée est une archive dont le contenu peut être listé
+     */
+    public static boolean estInspectable(FileInfo fichier) {
+        if (fichier.estDossier() || fichier.estVirtuel()) {
+            return false;
+        }
+        String extension = fichier.getExtension();
+        return EXTENSIONS_ZIP.contains(extension) || extension.equals("tar");
+    }
+
+    /**
+     * Liste en parallèle le contenu de toutes les archives de la liste. Une archive dont toutes les entrées
+     * ne sont pas listées (limite atteinte) est marquée ({@link FileInfo#getEntreesNonListees()}).
+     * @return Les entrées virtuelles, regroupées par archive dans l'ordre de la liste
+     */
+    public List<FileInfo> inspecter(List<FileInfo> fichiers) {
+        List<FileInfo> archives = new ArrayList<>();
+        for (FileInfo fichier : fichiers) {
+            if (estInspectable(fichier)) {
+                archives.add(fichier);
+            }
+        }
+        if (archives.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(nombreThreads, archives.size()));
+        try {
+            List<Future<Contenu>> resultats = new ArrayList<>();
+            for (FileInfo archive : archives) {
+                resultats.add(pool.submit(() -> listerSansErreur(archive.getCheminComplet())));
+            }
+
+            List<FileInfo> entrees = new ArrayList<>();
+            for (int i = 0; i < archives.size(); i++) {
+                Contenu contenu = resultats.get(i).get();
+                entrees.addAll(contenu.entrees);
+                archives.get(i).setEntreesNonListees(contenu.nonListees);
+            }
+            return entrees;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ArrayList<>();
+        } catch (ExecutionException e) {
+            System.err.println("Erreur lors de l'inspection des archives : " + e.getCause().getMessage());
+            return new ArrayList<>();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Liste les entrées d'une archive ZIP ou TAR
+     * @return Les entrées virtuelles (vide si le fichier n'est pas une archive reconnue)
+     */
+    public List<FileInfo> listerEntrees(Path archive) throws IOException {
+        return lister(archive).entrees;
+    }
+
+    private Contenu lister(Path archive) throws IOException {
+        try (FileChannel canal = FileChannel.open(archive, StandardOpenOption.READ)) {
+            Contenu contenu = new Contenu();
+            boolean tar = MimeTypeDetector.extraireExtension(archive).equals("tar");
+            boolean reconnue = tar ? lireTar(canal, archive, contenu) : lireZip(canal, archive, contenu);
+            if (!reconnue) {
+                contenu.entrees.clear();
+            }
+            return contenu;
+        }
+    }
+
+    private Contenu listerSansErreur(Path archive) {
+        try {
+            return lister(archive);
+        } catch (IOException | RuntimeException e) {
+            // Ignorer les archives corrompues ou illisibles, sans affecter les autres
+            System.err.println("Erreur lors de l'inspection de " + archive + ": " + e.getMessage());
+            return new Contenu();
+        }
+    }
+
+    /**
+     * Lit le répertoire central d'une archive ZIP (ZIP64 compris)
+     * @return false si aucun enregistrement de fin de répertoire central n'est trouvé
+     */
+    private boolean lireZip(FileChannel canal, Path archive, Contenu contenu) throws IOException {
+        long tailleFichier = canal.size();
+        if (tailleFichier < TAILLE_EOCD) {
+            return false;
+        }
+
+        // L'enregistrement de fin se trouve dans les derniers octets (22 + commentaire éventuel)
+        int tailleFin = (int) Math.min(tailleFichier, TAILLE_EOCD + COMMENTAIRE_MAX);
+        ByteBuffer fin = lireBloc(canal, tailleFichier - tailleFin, tailleFin);
+        int positionEocd = -1;
+        for (int i = tailleFin - TAILLE_EOCD; i >= 0; i--) {
+            if (fin.getInt(i) == SIGNATURE_EOCD) {
+                positionEocd = i;
+                break;
+            }
+        }
+        if (positionEocd < 0) {
+            return false;
+        }
+
+        long nombreEntrees = fin.getShort(positionEocd + 10) & 0xFFFFL;
+        long debutCentral = fin.getInt(positionEocd + 16) & 0xFFFFFFFFL;
+        boolean zip64 = nombreEntrees == 0xFFFFL || debutCentral == 0xFFFFFFFFL;
+        if (zip64 && positionEocd >= 20 && fin.getInt(positionEocd - 20) == SIGNATURE_ZIP64_LOCATOR) {
+            long positionZip64 = fin.getLong(positionEocd - 20 + 8);
+            verifierPlage(positionZip64, 56, tailleFichier, "Enregistrement de fin ZIP64");
+            ByteBuffer eocd64 = lireBloc(canal, positionZip64, 56);
+            if (eocd64.getInt(0) != SIGNATURE_ZIP64_EOCD) {
+                throw new IOException("Enregistrement de fin ZIP64 invalide");
+            }
+            nombreEntrees = eocd64.getLong(32);
+            debutCentral = eocd64.getLong(48);
+        }
+        if (nombreEntrees < 0) {
+            throw new IOException("Nombre d'entrées ZIP invalide : " + nombreEntrees);
+        }
+        verifierPlage(debutCentral, 0, tailleFichier, "Répertoire central ZIP");
+
+        List<FileInfo> entrees = contenu.entrees;
+        LecteurCanal lecteur = new LecteurCanal(canal, debutCentral);
+        long i = 0;
+        for (; i < nombreEntrees && entrees.size() < entreesMax; i++) {
+            ByteBuffer tampon = lecteur.exiger(TAILLE_ENTREE_CENTRALE);
+            int debut = tampon.position();
+            if (tampon.getInt(debut) != SIGNATURE_CENTRAL) {
+                throw new IOException("Répertoire central ZIP invalide");
+            }
+            int longueurNom = tampon.getShort(debut + 28) & 0xFFFF;
+            int longueurExtra = tampon.getShort(debut + 30) & 0xFFFF;
+            int longueurCommentaire = tampon.getShort(debut + 32) & 0xFFFF;
+            int longueurTotale = TAILLE_ENTREE_CENTRALE + longueurNom + longueurExtra + longueurCommentaire;
+
+            // La relecture peut compacter le tampon : l'enregistrement redémarre à sa position
+            tampon = lecteur.exiger(longueurTotale);
+            debut = tampon.position();
+            int drapeaux = tampon.getShort(debut + 8) & 0xFFFF;
+            long tailleDecompressee = tampon.getInt(debut + 24) & 0xFFFFFFFFL;
+            Charset charset = (drapeaux & 0x0800) != 0 ? StandardCharsets.UTF_8 : CHARSET_ZIP_DEFAUT;
+            String nom = new String(tampon.array(), tampon.arrayOffset() + debut + TAILLE_ENTREE_CENTRALE,
+                longueurNom, charset);
+
+            if (tailleDecompressee == 0xFFFFFFFFL) {
+                tailleDecompressee = lireTailleZip64(tampon, debut + TAILLE_ENTREE_CENTRALE + longueurNom,
+                    longueurExtra, tailleDecompressee);
+                if (tailleDecompressee < 0) {
+                    throw new IOException("Taille ZIP64 invalide pour " + nom);
+                }
+            }
+            tampon.position(debut + longueurTotale);
+
+            // Les dossiers n'ont pas de contenu propre : seuls les fichiers sont listés
+            if (!nom.endsWith("/") && !nom.endsWith("\\")) {
+                ajouterEntree(entrees, archive, nom, tailleDecompressee);
+            }
+        }
+        // Enregistrements restants (fichiers et dossiers) non lus une fois la limite atteinte
+        contenu.nonListees = nombreEntrees - i;
+        return true;
+    }
+
+    /**
+     * Lit la taille décompressée dans le champ extra ZIP64 (identifiant 0x0001)
+     */
+    private long lireTailleZip64(ByteBuffer tampon, int debutExtra, int longueurExtra, long tailleParDefaut) {
+        int position = debutExtra;
+        int finExtra = debutExtra + longueurExtra;
+        while (position + 4 <= finExtra) {
+            int identifiant = tampon.getShort(position) & 0xFFFF;
+            int taille = tampon.getShort(position + 2) & 0xFFFF;
+            if (identifiant == 0x0001 && taille >= 8) {
+                // La taille décompressée est toujours le premier champ lorsqu'elle est présente
+                return tampon.getLong(position + 4);
+            }
+            position += 4 + taille;
+        }
+        return tailleParDefaut;
+    }
+
+    /**
+     * Parcourt les en-têtes d'une archive TAR en sautant les données de chaque entrée
+     * @return false si le premier en-tête n'est pas un en-tête TAR valide
+     */
+    private boolean lireTar(FileChannel canal, Path archive, Contenu contenu) throws IOException {
+        long tailleFichier = canal.size();
+        List<FileInfo> entrees = contenu.entrees;
+        ByteBuffer tampon = ByteBuffer.allocate(BLOC_TAR);
+        byte[] entete = tampon.array();
+        String nomEtendu = null;
+        long tailleEtendue = -1;
+        long position = 0;
+
+        while (position + BLOC_TAR <= tailleFichier && entrees.size() < entreesMax) {
+            tampon.clear();
+            lireComplet(canal, tampon, position);
+            if (estBlocVide(entete)) {
+                break;
+            }
+            if (!sommeControleValide(entete)) {
+                if (position == 0) {
+                    return false;
+                }
+                throw new IOException("En-tête TAR invalide à la position " + position);
+            }
+
+            long tailleDonnees = lireNombreTar(entete, 124, 12);
+            long debutDonnees = position + BLOC_TAR;
+            if (tailleDonnees < 0) {
+                // Un saut négatif ferait reculer le parcours
+                throw new IOException("Taille TAR invalide à la position " + position);
+            }
+            char type = (char) entete[156];
+
+            if (type == 'L') {
+                // Nom long GNU : le nom de l'entrée suivante est dans les données
+                nomEtendu = lireTexte(canal, debutDonnees, tailleDonnees);
+            } else if (type == 'x') {
+                // En-tête étendu POSIX (pax) : peut redéfinir le chemin et la taille de l'entrée suivante
+                String pax = lireTexte(canal, debutDonnees, tailleDonnees);
+                String chemin = lireAttributPax(pax, "path");
+                if (chemin != null) {
+                    nomEtendu = chemin;
+                }
+                String taille = lireAttributPax(pax, "size");
+                if (taille != null) {
+                    tailleEtendue = lireTaillePax(taille);
+                }
+            } else {
+                if (type == '0' || type == '\0' || type == '7') {
+                    if (tailleEtendue >= 0) {
+                        tailleDonnees = tailleEtendue;
+                    }
+                    String nom = nomEtendu != null ? nomEtendu : lireNomUstar(entete);
+                    ajouterEntree(entrees, archive, nom, tailleDonnees);
+                }
+                nomEtendu = null;
+                tailleEtendue = -1;
+            }
+
+            // Sauter directement à l'en-tête suivant (les données sont alignées sur 512 octets)
+            position = debutDonnees + (tailleDonnees + BLOC_TAR - 1) / BLOC_TAR * BLOC_TAR;
+        }
+        if (entrees.size() >= entreesMax && position + BLOC_TAR <= tailleFichier) {
+            // Limite atteinte : le nombre d'entrées restantes n'est pas connu sans lire leurs en-têtes
+            ByteBuffer suivant = lireBloc(canal, position, BLOC_TAR);
+            if (!estBlocVide(suivant.array())) {
+                contenu.nonListees = FileInfo.ENTREES_NON_LISTEES_INCONNUES;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lit la taille d'un en-tête étendu pax (nombre décimal positif)
+     */
+    private long lireTaillePax(String taille) throws IOException {
+        try {
+            long valeur = Long.parseLong(taille.trim());
+            if (valeur >= 0) {
+                return valeur;
+            }
+        } catch (NumberFormatException e) {
+            // Traité comme une taille invalide
+        }
+        throw new IOException("Taille pax invalide : " + taille);
+    }
+
+    /**
+     * Vérifie qu'une zone lue d'après les en-têtes d'une archive est contenue dans le fichier
+     */
+    private static void verifierPlage(long position, long longueur, long tailleFichier, String zone) throws IOException {
+        if (position < 0 || longueur < 0 || position > tailleFichier || longueur > tailleFichier - position) {
+            throw new IOException(zone + " hors de l'archive (position " + position + ", longueur " + longueur + ")");
+        }
+    }
+
+    private String lireNomUstar(byte[] entete) {
+        String nom = lireChaine(entete, 0, 100);
+        boolean ustar = entete[257] == 'u' && entete[258] == 's' && entete[259] == 't'
+            && entete[260] == 'a' && entete[261] == 'r';
+        if (ustar) {
+            String prefixe = lireChaine(entete, 345, 155);
+            if (!prefixe.isEmpty()) {
+                return prefixe + "/" + nom;
+            }
+        }
+        return nom;
+    }
+
+    private String lireAttributPax(String pax, String cle) {
+        // Format : "<longueur> <clé>=<valeur>\n" répété
+        for (String ligne : pax.split("\n")) {
+            int espace = ligne.indexOf(' ');
+            int egal = ligne.indexOf('=');
+            if (espace > 0 && egal > espace && ligne.substring(espace + 1, egal).equals(cle)) {
+                return ligne.substring(egal + 1);
+            }
+        }
+        return null;
+    }
+
+    private String lireTexte(FileChannel canal, long position, long taille) throws IOException {
+        if (taille < 0 || taille > EXTENSION_TAR_MAX) {
+            throw new IOException("En-tête TAR étendu trop grand (" + taille + " octets)");
+        }
+        ByteBuffer tampon = lireBloc(canal, position, (int) taille);
+        return lireChaine(tampon.array(), 0, (int) taille);
+    }
+
+    private boolean estBlocVide(byte[] bloc) {
+        for (byte octet : bloc) {
+            if (octet != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean sommeControleValide(byte[] entete) {
+        long somme = 0;
+        for (int i = 0; i < BLOC_TAR; i++) {
+            // Le champ de somme de contrôle est compté comme s'il contenait des espaces
+            somme += (i >= 148 && i < 156) ? ' ' : (entete[i] & 0xFF);
+        }
+        return somme == lireNombreTar(entete, 148, 8);
+    }
+
+    /**
+     * Lit un nombre TAR : octal en ASCII, ou binaire big-endian si le bit de poids fort est positionné
+     */
+    private long lireNombreTar(byte[] entete, int debut, int longueur) {
+        long valeur = 0;
+        if ((entete[debut] & 0x80) != 0) {
+            valeur = entete[debut] & 0x7F;
+            for (int i = debut + 1; i < debut + longueur; i++) {
+                valeur = (valeur << 8) | (entete[i] & 0xFF);
+            }
+            return valeur;
+        }
+        for (int i = debut; i < debut + longueur; i++) {
+            byte octet = entete[i];
+            if (octet >= '0' && octet <= '7') {
+                valeur = (valeur << 3) + (octet - '0');
+            } else if (octet == 0 || (octet == ' ' && valeur > 0)) {
+                break;
+            }
+        }
+        return valeur;
+    }
+
+    private String lireChaine(byte[] donnees, int debut, int longueur) {
+        int fin = debut;
+        while (fin < debut + longueur && donnees[fin] != 0) {
+            fin++;
+        }
+        return new String(donnees, debut, fin - debut, StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Ajoute l'entrée virtuelle d'un fichier contenu dans une archive, si le filtre l'accepte.
+     * Une entrée dont le nom sort de l'archive (chemin absolu ramené, ".." au-delà de la racine) est ignorée.
+     */
+    private void ajouterEntree(List<FileInfo> entrees, Path archive, String nomBrut, long taille) {
+        String nomEntree = normaliserNomEntree(nomBrut);
+        if (nomEntree == null) {
+            System.err.println("Entrée ignorée dans " + archive + " (nom hors de l'archive) : " + nomBrut);
+            return;
+        }
+        if (filtre == null || filtre.accepteEntree(nomEntree.substring(nomEntree.lastIndexOf('/') + 1), taille)) {
+            entrees.add(creerEntree(archive, nomEntree, taille));
+        }
+    }
+
+    /**
+     * Normalise le nom d'une entrée d'archive en chemin relatif à l'archive : séparateurs "\\" convertis
+     * en "/", lettre de lecteur et "/" initiaux retirés, segments "." et ".." résolus
+     * @return Le nom normalisé, ou null s'il est vide ou sort de l'archive
+     */
+    static String normaliserNomEntree(String nom) {
+        String chemin = nom.replace('\\', '/');
+        if (chemin.length() >= 2 && chemin.charAt(1) == ':' && Character.isLetter(chemin.charAt(0))) {
+            chemin = chemin.substring(2);
+        }
+        List<String> segments = new ArrayList<>();
+        for (String segment : chemin.split("/")) {
+            if (segment.isEmpty() || segment.equals(".")) {
+                continue;
+            }
+            if (segment.equals("..")) {
+                if (segments.isEmpty()) {
+                    return null;
+                }
+                segments.remove(segments.size() - 1);
+            } else {
+                segments.add(segment);
+            }
+        }
+        return segments.isEmpty() ? null : String.join("/", segments);
+    }
+
+    /**
+     * Crée l'entrée virtuelle correspondant à un fichier contenu dans une archive
+     * @param nomEntree Le nom normalisé de l'entrée ({@link #normaliserNomEntree(String)})
+     */
+    private FileInfo creerEntree(Path archive, String nomEntree, long taille) {
+        String nomBase = nomEntree.substring(nomEntree.lastIndexOf('/') + 1);
+        int dernierPoint = nomBase.lastIndexOf('.');
+        String extension = dernierPoint > 0 && dernierPoint < nomBase.length() - 1
+            ? nomBase.substring(dernierPoint + 1).toLowerCase() : "";
+        String typeMime = MimeTypeDetector.detecterTypeMimeParExtension(nomBase);
+        String categorie = MimeTypeDetector.determinerCategorie(typeMime);
+
+        Path chemin;
+        try {
+            chemin = archive.resolve(nomEntree);
+        } catch (InvalidPathException e) {
+            // Nom d'entrée non représentable sur ce système de fichiers
+            chemin = archive;
+        }
+        return new FileInfo(chemin, nomEntree, extension, typeMime, categorie, taille, false, archive);
+    }
+
+    private static ByteBuffer lireBloc(FileChannel canal, long position, int taille) throws IOException {
+        ByteBuffer tampon = ByteBuffer.allocate(taille).order(ByteOrder.LITTLE_ENDIAN);
+        lireComplet(canal, tampon, position);
+        return tampon;
+    }
+
+    private static void lireComplet(FileChannel canal, ByteBuffer tampon, long position) throws IOException {
+        while (tampon.hasRemaining()) {
+            int lus = canal.read(tampon, position);
+            if (lus < 0) {
+                throw new EOFException("Fin d'archive inattendue");
+            }
+            position += lus;
+        }
+    }
+
+    private static Charset chargerCharsetZip() {
+        // Les noms ZIP sans le drapeau UTF-8 sont encodés en CP437
+        try {
+            return Charset.forName("IBM437");
+        } catch (Exception e) {
+            return StandardCharsets.ISO_8859_1;
+        }
+    }
+
+    /**
+     * Lecture séquentielle bufferisée d'un canal à partir d'une position donnée
+     */
+    private static final class LecteurCanal {
+        private final FileChannel canal;
+        private final ByteBuffer tampon;
+        private long position;
+
+        LecteurCanal(FileChannel canal, long debut) {
+            this.canal = canal;
+            this.tampon = ByteBuffer.allocate(TAILLE_TAMPON).order(ByteOrder.LITTLE_ENDIAN);
+            this.tampon.limit(0);
+            this.position = debut;
+        }
+
+        /**
+         * Garantit qu'au moins {@code octets} octets sont disponibles à partir de la position courante du tampon
+         */
+        ByteBuffer exiger(int octets) throws IOException {
+            if (tampon.remaining() >= octets) {
+                return tampon;
+            }
+            tampon.compact();
+            while (tampon.position() < octets) {
+                int lus = canal.read(tampon, position);
+                if (lus < 0) {
+                    throw new EOFException("Fin d'archive inattendue");
+                }
+                position += lus;
+            }
+            tampon.flip();
+            return tampon;
+        }
+    }
+
+    /**
+     * Entrées listées d'une archive et nombre d'entrées non listées
+     */
+    private static final class Contenu {
+        private final List<FileInfo> entrees = new ArrayList<>();
+        private long nonListees;
+    }
+}
@@ -0,0 +1,240 @@
+package com.filelist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Classe comptant les lignes et les caractères des fichiers texte (catégories Code et Document
+ * de type text/), après le scan.
+ *
+ * Les fichiers sont lus en parallèle par grands blocs : tampon direct pour les petits fichiers,
+ * projection en mémoire pour les gros. Chaque bloc est parcouru par mots de 8 octets : les sauts
+ * de ligne et les octets de continuation UTF-8 d'un mot sont repérés par opérations bit à bit
+ * puis comptés par {@link Long#bitCount(long)}, sans examiner les octets un par un.
+ */
+public class ContentCounter {
+    private static final int TAILLE_TAMPON = 1024 * 1024;
+    /** Taille au-delà de laquelle un fichier est projeté en mémoire plutôt que lu */
+    private static final long SEUIL_PROJECTION = 4L * 1024 * 1024;
+    private static final long FENETRE_PROJECTION = 256L * 1024 * 1024;
+
+    private static final long OCTETS_SAUT = 0x0A0A0A0A0A0A0A0AL;
+    private static final long BITS_BAS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long BITS_HAUTS = 0x8080808080808080L;
+
+    private final int nombreThreads;
+    private final long budgetOctets;
+    private final ThreadLocal<ByteBuffer> tampons = ThreadLocal.withInitial(
+        () -> ByteBuffer.allocateDirect(TAILLE_TAMPON).order(ByteOrder.nativeOrder()));
+
+    private long fichiersComptes;
+    private long fichiersHorsBudget;
+    private long octetsLus;
+
+    public ContentCounter() {
+        this(Runtime.getRuntime().availableProcessors(), 0);
+    }
+
+    /**
+     * @param nombreThreads Nombre maximal de fichiers lus en parallèle
+     * @param budgetOctets Nombre maximal d'octets lus au total (0 = illimité)
+     */
+    public ContentCounter(int nombreThreads, long budgetOctets) {
+        if (nombreThreads < 1) {
+            throw new IllegalArgumentException("Le nombre de threads doit être au moins 1");
+        }
+        if (budgetOctets < 0) {
+            throw new IllegalArgumentException("Le budget de lecture ne peut pas être négatif");
+        }
+        this.nombreThreads = nombreThreads;
+        this.budgetOctets = budgetOctets;
+    }
+
+    /**
+     * Vérifie si le contenu d'une entrée peut être compté (fichier réel de texte, hors liens
+     * vers un fichier déjà compté)
+     */
+    public static boolean estComptable(FileInfo fichier) {
+        return !fichier.estDossier() && fichier.compteDansTotaux() && MimeTypeDetector.estTexte(fichier.getTypeMime());
+    }
+
+    /**
+     * Compte en parallèle les lignes et caractères des fichiers texte de la liste et les enregistre
+     * dans chaque fichier et dans les statistiques. Avec un budget, les fichiers sont retenus dans
+     * l'ordre de la liste tant que leur taille y tient ; les autres ne sont pas lus.
+     */
+    public void compter(List<FileInfo> fichiers, ScanStatistics statistiques) {
+        List<FileInfo> retenus = new ArrayList<>();
+        long reserves = 0;
+        for (FileInfo fichier : fichiers) {
+            if (!estComptable(fichier)) {
+                continue;
+            }
+            if (budgetOctets > 0 && reserves + fichier.getTailleOctets() > budgetOctets) {
+                fichiersHorsBudget++;
+                continue;
+            }
+            reserves += fichier.getTailleOctets();
+            retenus.add(fichier);
+        }
+        if (retenus.isEmpty()) {
+            return;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(nombreThreads, retenus.size()));
+        try {
+            List<Future<Comptage>> resultats = new ArrayList<>();
+            for (FileInfo fichier : retenus) {
+                resultats.add(pool.submit(() -> compterSansErreur(fichier.getCheminComplet())));
+            }
+
+            // Enregistrement dans l'ordre de la liste
+            for (int i = 0; i < retenus.size(); i++) {
+                Comptage comptage = resultats.get(i).get();
+                if (comptage == null) {
+                    continue;
+                }
+                FileInfo fichier = retenus.get(i);
+                fichier.setContenu(comptage.getLignes(), comptage.getCaracteres());
+                statistiques.enregistrerContenu(ScanStatistics.categorie(fichier), comptage.octets,
+                    comptage.getLignes(), comptage.getCaracteres());
+                fichiersComptes++;
+                octetsLus += comptage.octets;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Erreur lors du comptage des lignes : " + e.getCause().getMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Compte les lignes et caractères d'un fichier
+     */
+    public Comptage compter(Path fichier) throws IOException {
+        Comptage comptage = new Comptage();
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long taille = canal.size();
+            if (taille > SEUIL_PROJECTION) {
+                for (long position = 0; position < taille; position += FENETRE_PROJECTION) {
+                    ByteBuffer fenetre = canal.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(FENETRE_PROJECTION, taille - position));
+                    compterBloc(fenetre.order(ByteOrder.nativeOrder()), comptage);
+                }
+            } else {
+                ByteBuffer tampon = tampons.get();
+                while (true) {
+                    tampon.clear();
+                    if (canal.read(tampon) < 0) {
+                        break;
+                    }
+                    tampon.flip();
+                    compterBloc(tampon, comptage);
+                }
+            }
+        }
+        return comptage;
+    }
+
+    private Comptage compterSansErreur(Path fichier) {
+        try {
+            return compter(fichier);
+        } catch (IOException e) {
+            System.err.println("Erreur lors du comptage des lignes de " + fichier + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Compte les sauts de ligne et les octets de continuation UTF-8 (10xxxxxx) d'un bloc, 8 octets à la fois
+     */
+    private static void compterBloc(ByteBuffer bloc, Comptage comptage) {
+        int debut = bloc.position();
+        int fin = bloc.limit();
+        if (fin == debut) {
+            return;
+        }
+        long sauts = 0;
+        long suites = 0;
+        int i = debut;
+        for (; i + 8 <= fin; i += 8) {
+            long mot = bloc.getLong(i);
+            // Octets nuls de mot ^ '\n' : bit de poids fort levé sans retenue d'un octet sur l'autre
+            long x = mot ^ OCTETS_SAUT;
+            sauts += Long.bitCount(~(((x & BITS_BAS) + BITS_BAS) | x | BITS_BAS));
+            // Bit 7 levé et bit 6 baissé : le décalage amène le bit 6 de chaque octet sur son bit 7
+            suites += Long.bitCount(mot & ~(mot << 1) & BITS_HAUTS);
+        }
+        for (; i < fin; i++) {
+            byte octet = bloc.get(i);
+            if (octet == '\n') {
+                sauts++;
+            }
+            if ((octet & 0xC0) == 0x80) {
+                suites++;
+            }
+        }
+        comptage.sauts += sauts;
+        comptage.octets += fin - debut;
+        comptage.caracteres += fin - debut - suites;
+        comptage.dernierOctet = bloc.get(fin - 1);
+    }
+
+    /**
+     * @return Le nombre de fichiers dont le contenu a été compté
+     */
+    public long getFichiersComptes() {
+        return fichiersComptes;
+    }
+
+    /**
+     * @return Le nombre de fichiers texte non lus faute de budget
+     */
+    public long getFichiersHorsBudget() {
+        return fichiersHorsBudget;
+    }
+
+    public long getOctetsLus() {
+        return octetsLus;
+    }
+
+    /**
+     * Résultat du comptage d'un fichier
+     */
+    public static final class Comptage {
+        private long sauts;
+        private long caracteres;
+        private long octets;
+        private byte dernierOctet = '\n';
+
+        /**
+         * @return Le nombre de lignes (une dernière ligne sans saut de ligne final est comptée)
+         */
+        public long getLignes() {
+            return dernierOctet == '\n' ? sauts : sauts + 1;
+        }
+
+        /**
+         * @return Le nombre de caractères UTF-8 (octets qui ne sont pas des octets de continuation)
+         */
+        public long getCaracteres() {
+            return caracteres;
+        }
+
+        public long getOctets() {
+            return octets;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.filelist;
+
+/**
+ * Classe représentant la taille estimée d'un dossier (mode approximatif),
+ * avec ses bornes de confiance à 95 %
+ */
+public class EstimationTaille {
+    /** Borne supérieure inconnue (aucun échantillon suffisant) */
+    public static final long INCONNUE = -1;
+    /** Texte affiché pour un dossier que l'estimation n'a pas atteint */
+    public static final String NON_ESTIMEE = "non estimé";
+
+    private final long taille;
+    private final long tailleMin;
+    private final long tailleMax;
+    private final long nombreFichiers;
+    private final long nombreMin;
+    private final long nombreMax;
+    private final boolean exacte;
+    private final boolean atteinte;
+
+    public EstimationTaille(long taille, long tailleMin, long tailleMax,
+                            long nombreFichiers, long nombreMin, long nombreMax, boolean exacte) {
+        this(taille, tailleMin, tailleMax, nombreFichiers, nombreMin, nombreMax, exacte, true);
+    }
+
+    private EstimationTaille(long taille, long tailleMin, long tailleMax, long nombreFichiers,
+                             long nombreMin, long nombreMax, boolean exacte, boolean atteinte) {
+        this.taille = taille;
+        this.tailleMin = tailleMin;
+        this.tailleMax = tailleMax;
+        this.nombreFichiers = nombreFichiers;
+        this.nombreMin = nombreMin;
+        this.nombreMax = nombreMax;
+        this.exacte = exacte;
+        this.atteinte = atteinte;
+    }
+
+    /**
+     * @return L'estimation d'un dossier que le budget n'a pas permis de lire : taille et nombre de fichiers
+     *         inconnus (0 comme borne inférieure, sans borne supérieure)
+     */
+    public static EstimationTaille nonAtteinte() {
+        return new EstimationTaille(0, 0, INCONNUE, 0, 0, INCONNUE, false, false);
+    }
+
+    public long getTaille() {
+        return taille;
+    }
+
+    public long getTailleMin() {
+        return tailleMin;
+    }
+
+    /**
+     * @return La borne supérieure, ou {@link #INCONNUE}
+     */
+    public long getTailleMax() {
+        return tailleMax;
+    }
+
+    public long getNombreFichiers() {
+        return nombreFichiers;
+    }
+
+    public long getNombreMin() {
+        return nombreMin;
+    }
+
+    /**
+     * @return La borne supérieure, ou {@link #INCONNUE}
+     */
+    public long getNombreMax() {
+        return nombreMax;
+    }
+
+    /**
+     * @return Le nombre de fichiers et, s'il est estimé, ses bornes (ex. "~120 fichiers [95 ; 150]")
+     */
+    public String decrireNombre() {
+        if (!atteinte) {
+            return "fichiers : " + NON_ESTIMEE;
+        }
+        if (exacte) {
+            return nombreFichiers + " fichier(s)";
+        }
+        return String.format("~%d fichiers [%d ; %s]",
+            nombreFichiers, nombreMin, nombreMax == INCONNUE ? "?" : String.valueOf(nombreMax));
+    }
+
+    /**
+     * Indique si l'estimation couvre tout le dossier (valeur exacte)
+     */
+    public boolean estExacte() {
+        return exacte;
+    }
+
+    /**
+     * Indique si l'estimation a lu le dossier ; sinon, ni sa taille ni son nombre de fichiers ne sont connus
+     */
+    public boolean estAtteinte() {
+        return atteinte;
+    }
+
+    @Override
+    public String toString() {
+        if (!atteinte) {
+            return NON_ESTIMEE;
+        }
+        if (exacte) {
+            return String.format("%d o, %d fichier(s)", taille, nombreFichiers);
+        }
+        return String.format("~%d o [%d ; %s], ~%d fichier(s) [%d ; %s]",
+            taille, tailleMin, tailleMax == INCONNUE ? "?" : String.valueOf(tailleMax),
+            nombreFichiers, nombreMin, nombreMax == INCONNUE ? "?" : String.valueOf(nombreMax));
+    }
+}
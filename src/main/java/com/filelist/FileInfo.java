@@ -1,11 +1,18 @@
 package com.filelist;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * Classe représentant les informations d'un fichier
  */
 public class FileInfo {
+    /** Entrées d'une archive non listées, en nombre inconnu */
+    public static final long ENTREES_NON_LISTEES_INCONNUES = -1;
+
     private Path cheminComplet;
     private String nom;
     private String extension;
@@ -14,9 +21,24 @@ public class FileInfo {
     private long tailleOctets;
     private String tailleLisible;
     private boolean estDossier;
+    private Path archiveParente;
+    private EstimationTaille estimation;
+    private boolean doublon;
+    private long lignes = -1;
+    private long caracteres = -1;
+    private long entreesNonListees;
 
     public FileInfo(Path cheminComplet, String nom, String extension, String typeMime, 
                    String categorie, long tailleOctets, boolean estDossier) {
+        this(cheminComplet, nom, extension, typeMime, categorie, tailleOctets, estDossier, null);
+    }
+
+    /**
+     * Crée une entrée, éventuellement virtuelle (contenue dans une archive)
+     * @param archiveParente L'archive contenant l'entrée, ou null pour un fichier réel
+     */
+    public FileInfo(Path cheminComplet, String nom, String extension, String typeMime, 
+                   String categorie, long tailleOctets, boolean estDossier, Path archiveParente) {
         this.cheminComplet = cheminComplet;
         this.nom = nom;
         this.extension = extension;
@@ -25,6 +47,71 @@ public class FileInfo {
         this.tailleOctets = tailleOctets;
         this.tailleLisible = estDossier ? formaterTaille(tailleOctets) : formaterTaille(tailleOctets);
         this.estDossier = estDossier;
+        this.archiveParente = archiveParente;
+    }
+
+    /**
+     * Remplace la taille par une estimation (mode approximatif) ;
+     * une taille non exacte est préfixée par "~", celle d'un dossier non atteint par l'estimation est
+     * affichée "non estimé" (elle compte pour 0 dans les totaux)
+     */
+    public void setEstimation(EstimationTaille estimation) {
+        this.estimation = estimation;
+        this.tailleOctets = estimation.getTaille();
+        if (!estimation.estAtteinte()) {
+            this.tailleLisible = EstimationTaille.NON_ESTIMEE;
+        } else {
+            this.tailleLisible = estimation.estExacte() ? formaterTaille(tailleOctets) : "~" + formaterTaille(tailleOctets);
+        }
+    }
+
+    /**
+     * Marque le fichier comme un lien supplémentaire vers un fichier physique déjà compté
+     */
+    public void marquerDoublon() {
+        this.doublon = true;
+    }
+
+    /**
+     * Enregistre le nombre de lignes et de caractères du contenu (fichiers texte, voir {@link ContentCounter})
+     */
+    public void setContenu(long lignes, long caracteres) {
+        this.lignes = lignes;
+        this.caracteres = caracteres;
+    }
+
+    /**
+     * Indique qu'une partie des entrées de l'archive n'a pas été listée (limite du nombre d'entrées)
+     * @param nombre Le nombre d'entrées non listées, ou {@link #ENTREES_NON_LISTEES_INCONNUES}
+     */
+    public void setEntreesNonListees(long nombre) {
+        this.entreesNonListees = nombre;
+    }
+
+    /**
+     * Écrit une entrée réelle (résultat d'un processus de scan)
+     */
+    public void ecrire(DataOutput sortie) throws IOException {
+        sortie.writeUTF(cheminComplet.toString());
+        sortie.writeUTF(nom);
+        sortie.writeUTF(extension);
+        sortie.writeUTF(typeMime);
+        sortie.writeUTF(categorie);
+        sortie.writeLong(tailleOctets);
+        sortie.writeBoolean(estDossier);
+        sortie.writeBoolean(doublon);
+    }
+
+    /**
+     * Relit une entrée écrite par {@link #ecrire(DataOutput)}
+     */
+    public static FileInfo lire(DataInput entree) throws IOException {
+        FileInfo info = new FileInfo(Paths.get(entree.readUTF()), entree.readUTF(), entree.readUTF(),
+            entree.readUTF(), entree.readUTF(), entree.readLong(), entree.readBoolean());
+        if (entree.readBoolean()) {
+            info.marquerDoublon();
+        }
+        return info;
     }
 
     /**
@@ -75,6 +162,69 @@ public class FileInfo {
         return estDossier;
     }
 
+    public Path getArchiveParente() {
+        return archiveParente;
+    }
+
+    /**
+     * Indique si l'entrée est virtuelle (listée depuis le contenu d'une archive)
+     */
+    public boolean estVirtuel() {
+        return archiveParente != null;
+    }
+
+    /**
+     * @return L'estimation de taille (mode approximatif), ou null si la taille a été calculée exactement
+     */
+    public EstimationTaille getEstimation() {
+        return estimation;
+    }
+
+    /**
+     * Indique si la taille est une estimation non exacte
+     */
+    public boolean estEstime() {
+        return estimation != null && !estimation.estExacte();
+    }
+
+    /**
+     * Indique si le fichier est un lien vers un fichier physique déjà compté
+     */
+    public boolean estDoublon() {
+        return doublon;
+    }
+
+    /**
+     * @return Le nombre de lignes du contenu, ou -1 s'il n'a pas été compté
+     */
+    public long getLignes() {
+        return lignes;
+    }
+
+    /**
+     * @return Le nombre de caractères UTF-8 du contenu, ou -1 s'il n'a pas été compté
+     */
+    public long getCaracteres() {
+        return caracteres;
+    }
+
+    /**
+     * @return Le nombre d'entrées de l'archive non listées (0 si toutes l'ont été),
+     *         ou {@link #ENTREES_NON_LISTEES_INCONNUES}
+     */
+    public long getEntreesNonListees() {
+        return entreesNonListees;
+    }
+
+    /**
+     * Indique si la taille de l'entrée doit être comptée dans les totaux
+     * (les entrées virtuelles sont déjà comptées dans la taille de leur archive,
+     * les doublons dans celle du premier lien rencontré)
+     */
+    public boolean compteDansTotaux() {
+        return !estVirtuel() && !doublon;
+    }
+
     @Override
     public String toString() {
         return String.format("%s | %s | %s | %s | %s", 
@@ -0,0 +1,256 @@
+package com.filelist;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ensemble compact des identifiants physiques de fichiers, utilisé pour ne compter qu'une fois
+ * un fichier atteint par plusieurs liens physiques ou symboliques.
+ *
+ * Sur les systèmes Unix, le périphérique et l'inode sont décodés de la clé {@code fileKey()} déjà
+ * lue par le parcours (forme "(dev=<hexadécimal>,ino=<décimal>)"), sans autre lecture d'attributs.
+ * Les inodes (64 bits complets) sont stockés dans une table à adressage ouvert par périphérique,
+ * soit environ 11 octets par fichier. Les clés d'une autre forme (autres systèmes) sont conservées
+ * sous forme textuelle dans un ensemble classique.
+ */
+public class FileKeySet {
+    private static final long VIDE = 0;
+
+    private final Map<Long, TableInodes> parPeripherique = new HashMap<>();
+    private final Set<String> autresCles = new HashSet<>();
+
+    /**
+     * Ajoute l'identifiant physique d'un fichier
+     * @param attrs Les attributs déjà lus du fichier (lien résolu)
+     * @return true si le fichier n'était pas encore présent (premier lien rencontré),
+     *         true également si le système de fichiers ne fournit pas d'identifiant
+     */
+    public boolean ajouter(BasicFileAttributes attrs) {
+        Object cleFichier = attrs.fileKey();
+        if (cleFichier == null) {
+            return true;
+        }
+        String cle = cleFichier.toString();
+        int virgule = cle.indexOf(",ino=");
+        if (cle.startsWith("(dev=") && virgule > 0 && cle.endsWith(")")) {
+            try {
+                return ajouter(Long.parseUnsignedLong(cle.substring(5, virgule), 16),
+                    Long.parseLong(cle.substring(virgule + 5, cle.length() - 1)));
+            } catch (NumberFormatException e) {
+                // Forme inattendue : clé textuelle
+            }
+        }
+        synchronized (this) {
+            return autresCles.add(cle);
+        }
+    }
+
+    /**
+     * Ajoute un identifiant Unix
+     * @return true si l'identifiant n'était pas encore présent
+     */
+    public synchronized boolean ajouter(long peripherique, long inode) {
+        return parPeripherique.computeIfAbsent(peripherique, p -> new TableInodes()).ajouter(inode);
+    }
+
+    /**
+     * @return Le nombre de clés distinctes
+     */
+    public synchronized long taille() {
+        long taille = autresCles.size();
+        for (TableInodes inodes : parPeripherique.values()) {
+            taille += inodes.taille();
+        }
+        return taille;
+    }
+
+    /**
+     * @return Une copie indépendante de l'ensemble
+     */
+    public synchronized FileKeySet copier() {
+        FileKeySet copie = new FileKeySet();
+        for (Map.Entry<Long, TableInodes> peripherique : parPeripherique.entrySet()) {
+            copie.parPeripherique.put(peripherique.getKey(), peripherique.getValue().copier());
+        }
+        copie.autresCles.addAll(autresCles);
+        return copie;
+    }
+
+    /**
+     * Ajoute les clés d'un autre ensemble
+     * @param exclues Les clés de l'autre ensemble à ignorer (null pour n'en ignorer aucune)
+     * @return Les clés ajoutées qui étaient déjà présentes
+     */
+    public synchronized FileKeySet ajouterTout(FileKeySet cles, FileKeySet exclues) {
+        FileKeySet dejaPresentes = new FileKeySet();
+        for (Map.Entry<Long, TableInodes> entree : cles.parPeripherique.entrySet()) {
+            long peripherique = entree.getKey();
+            TableInodes exclusDuPeripherique = exclues != null ? exclues.parPeripherique.get(peripherique) : null;
+            entree.getValue().pourChaque(inode -> {
+                if ((exclusDuPeripherique == null || !exclusDuPeripherique.contient(inode))
+                        && !ajouter(peripherique, inode)) {
+                    dejaPresentes.ajouter(peripherique, inode);
+                }
+            });
+        }
+        for (String cle : cles.autresCles) {
+            if ((exclues == null || !exclues.autresCles.contains(cle)) && !autresCles.add(cle)) {
+                dejaPresentes.autresCles.add(cle);
+            }
+        }
+        return dejaPresentes;
+    }
+
+    /**
+     * Écrit l'ensemble (point de reprise d'un scan, résultat d'un processus de scan)
+     */
+    public synchronized void ecrire(DataOutput sortie) throws IOException {
+        sortie.writeInt(parPeripherique.size());
+        for (Map.Entry<Long, TableInodes> peripherique : parPeripherique.entrySet()) {
+            sortie.writeLong(peripherique.getKey());
+            TableInodes inodes = peripherique.getValue();
+            sortie.writeLong(inodes.taille());
+            inodes.pourChaque(sortie::writeLong);
+        }
+        sortie.writeInt(autresCles.size());
+        for (String cle : autresCles) {
+            sortie.writeUTF(cle);
+        }
+    }
+
+    /**
+     * Relit un ensemble écrit par {@link #ecrire(DataOutput)}
+     */
+    public static FileKeySet lire(DataInput entree) throws IOException {
+        FileKeySet ensemble = new FileKeySet();
+        int nombrePeripheriques = entree.readInt();
+        for (int i = 0; i < nombrePeripheriques; i++) {
+            long peripherique = entree.readLong();
+            long nombreInodes = entree.readLong();
+            if (nombreInodes < 0) {
+                throw new IOException("Nombre d'inodes invalide : " + nombreInodes);
+            }
+            TableInodes inodes = new TableInodes();
+            for (long j = 0; j < nombreInodes; j++) {
+                inodes.ajouter(entree.readLong());
+            }
+            ensemble.parPeripherique.put(peripherique, inodes);
+        }
+        int nombreAutres = entree.readInt();
+        for (int i = 0; i < nombreAutres; i++) {
+            ensemble.autresCles.add(entree.readUTF());
+        }
+        return ensemble;
+    }
+
+    /**
+     * Mélange des bits (finaliseur de MurmurHash3) pour répartir les inodes consécutifs
+     */
+    private static long melanger(long valeur) {
+        valeur ^= valeur >>> 33;
+        valeur *= 0xff51afd7ed558ccdL;
+        valeur ^= valeur >>> 33;
+        valeur *= 0xc4ceb9fe1a85ec53L;
+        valeur ^= valeur >>> 33;
+        return valeur;
+    }
+
+    private interface ActionInode<E extends Exception> {
+        void executer(long inode) throws E;
+    }
+
+    /**
+     * Inodes d'un périphérique : table à adressage ouvert de {@code long} (0 marque une case vide,
+     * l'inode 0 est mémorisé à part)
+     */
+    private static final class TableInodes {
+        private long[] table = new long[64];
+        private int taille;
+        private boolean contientZero;
+
+        long taille() {
+            return taille + (contientZero ? 1 : 0);
+        }
+
+        boolean ajouter(long inode) {
+            if (inode == VIDE) {
+                boolean nouveau = !contientZero;
+                contientZero = true;
+                return nouveau;
+            }
+            int masque = table.length - 1;
+            int position = (int) melanger(inode) & masque;
+            while (table[position] != VIDE) {
+                if (table[position] == inode) {
+                    return false;
+                }
+                position = (position + 1) & masque;
+            }
+            table[position] = inode;
+            taille++;
+            // Facteur de charge maximal de 0,75
+            if (taille * 4L >= table.length * 3L) {
+                agrandir();
+            }
+            return true;
+        }
+
+        boolean contient(long inode) {
+            if (inode == VIDE) {
+                return contientZero;
+            }
+            int masque = table.length - 1;
+            int position = (int) melanger(inode) & masque;
+            while (table[position] != VIDE) {
+                if (table[position] == inode) {
+                    return true;
+                }
+                position = (position + 1) & masque;
+            }
+            return false;
+        }
+
+        <E extends Exception> void pourChaque(ActionInode<E> action) throws E {
+            if (contientZero) {
+                action.executer(VIDE);
+            }
+            for (long inode : table) {
+                if (inode != VIDE) {
+                    action.executer(inode);
+                }
+            }
+        }
+
+        TableInodes copier() {
+            TableInodes copie = new TableInodes();
+            copie.table = table.clone();
+            copie.taille = taille;
+            copie.contientZero = contientZero;
+            return copie;
+        }
+
+        private void agrandir() {
+            if (table.length >= 1 << 30) {
+                throw new IllegalStateException("Trop de fichiers pour la table des inodes");
+            }
+            long[] ancienne = table;
+            table = new long[ancienne.length * 2];
+            int masque = table.length - 1;
+            for (long inode : ancienne) {
+                if (inode != VIDE) {
+                    int position = (int) melanger(inode) & masque;
+                    while (table[position] != VIDE) {
+                        position = (position + 1) & masque;
+                    }
+                    table[position] = inode;
+                }
+            }
+        }
+    }
+}
@@ -4,7 +4,14 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -12,6 +19,11 @@ import java.util.Scanner;
  */
 public class FileListGenerator {
     public static void main(String[] args) {
+        Map<String, String> options = lireOptions(args);
+        if (options.containsKey("chercher")) {
+            chercherDansIndex(options);
+            return;
+        }
         Scanner scanner = new Scanner(System.in);
         
         System.out.println("=== Générateur de liste de fichiers en PDF ===");
@@ -79,27 +91,120 @@ public class FileListGenerator {
             
             // Scanner le répertoire
             FileScanner fileScanner = new FileScanner();
+            fileScanner.setInspecterArchives(options.containsKey("archives"));
+            fileScanner.setSuivreLiens(options.containsKey("suivre-liens"));
+            fileScanner.setDedoublonnerLiens(!options.containsKey("sans-dedoublonnage"));
+            fileScanner.setConserverFichiers(!options.containsKey("resume-seul"));
+            if (options.containsKey("processus")) {
+                fileScanner.setProcessus(Integer.parseInt(options.get("processus")));
+            }
+            if (options.containsKey("reprise")) {
+                fileScanner.setReprise(Paths.get(options.get("reprise")), Duration.ofSeconds(30));
+            }
+            if (options.containsKey("approx")) {
+                long secondes = Long.parseLong(options.get("approx"));
+                long lecturesMax = Long.parseLong(options.getOrDefault("approx-lectures", "0"));
+                fileScanner.setModeApproximatif(Duration.ofSeconds(secondes), lecturesMax);
+            }
+            ScanFilter filtre = lireFiltre(options);
+            if (filtre != null) {
+                fileScanner.setFiltre(filtre);
+                System.out.println("Filtre : " + filtre);
+            }
+            IoThrottle limiteur = null;
+            if (options.containsKey("debit-io")) {
+                // Stockage partagé : lectures de métadonnées limitées, ralenties si la latence augmente
+                limiteur = new IoThrottle(Double.parseDouble(options.get("debit-io")),
+                    Duration.ofMillis(Long.parseLong(options.getOrDefault("latence-io", "50"))));
+                fileScanner.setLimiteur(limiteur);
+            }
             List<FileInfo> fichiers = fileScanner.scannerRepertoire(repertoire, profondeurMax);
+            if (limiteur != null) {
+                System.out.println(limiteur.resume());
+            }
+            ScanStatistics statistiques = fileScanner.getStatistiques();
+            if (fileScanner.getDossiersRepris() > 0) {
+                System.out.println("Scan repris : " + fileScanner.getDossiersRepris() + " dossier(s) déjà calculé(s).");
+            }
             
-            if (fichiers.isEmpty()) {
+            if (fichiers.isEmpty() && statistiques.getTotal().getNombre() == 0) {
                 System.out.println("Aucun fichier trouvé dans le répertoire spécifié.");
                 return;
             }
 
             System.out.println(fichiers.size() + " fichier(s) trouvé(s).");
+            ContentCounter compteur = null;
+            if (options.containsKey("lignes")) {
+                // Lignes des fichiers texte listés, dans la limite d'un budget de lecture en Mo
+                long budget = options.get("lignes").isEmpty() ? 0 : Long.parseLong(options.get("lignes")) * 1024 * 1024;
+                System.out.println("Comptage des lignes en cours...");
+                compteur = new ContentCounter(Runtime.getRuntime().availableProcessors(), budget);
+                compteur.compter(fichiers, statistiques);
+            }
             System.out.println("Génération du PDF en cours...");
 
             // Générer le PDF
             PdfGenerator pdfGenerator = new PdfGenerator();
-            pdfGenerator.genererPdf(fichiers, repertoire, fichierSortie);
+            pdfGenerator.setModeOptimise(options.containsKey("pdf-optimise"));
+            pdfGenerator.setFiltre(filtre);
+            pdfGenerator.genererPdf(fichiers, repertoire, fichierSortie, statistiques);
 
             System.out.println();
             System.out.println("✓ PDF généré avec succès : " + fichierSortie.toAbsolutePath());
-            System.out.println("  Nombre de fichiers listés : " + fichiers.size());
+            if (options.containsKey("index")) {
+                // Index des noms, à côté du PDF par défaut
+                Path fichierIndex = options.get("index").isEmpty()
+                    ? Paths.get(nomFichier.substring(0, nomFichier.length() - ".pdf".length()) + ".index")
+                    : Paths.get(options.get("index"));
+                FileNameIndex.construire(fichiers).ecrire(fichierIndex);
+                System.out.println("✓ Index des noms : " + fichierIndex.toAbsolutePath());
+            }
+            long nombreVirtuels = fichiers.stream().filter(FileInfo::estVirtuel).count();
+            System.out.println("  Nombre de fichiers listés : " + (fichiers.size() - nombreVirtuels));
+            if (nombreVirtuels > 0) {
+                System.out.println("  Entrées d'archives listées : " + nombreVirtuels);
+            }
             
-            long tailleTotale = fichiers.stream().mapToLong(FileInfo::getTailleOctets).sum();
-            System.out.println("  Taille totale : " + formaterTaille(tailleTotale));
+            // Les statistiques couvrent tous les fichiers comptés, sauf lorsque des tailles sont estimées
+            long tailleTotale = statistiques.sontPartielles()
+                ? fichiers.stream().filter(FileInfo::compteDansTotaux).mapToLong(FileInfo::getTailleOctets).sum()
+                : statistiques.getTotal().getOctets();
+            System.out.println("  Fichiers comptés : " + statistiques.getTotal().getNombre()
+                + (statistiques.sontPartielles() ? " (hors dossiers estimés)" : ""));
+            if (statistiques.sontPartielles()) {
+                System.out.println("  Liens physiques : non dédoublonnés dans les dossiers estimés (mode approximatif)");
+            }
+            if (fileScanner.getNombreDoublons() > 0) {
+                System.out.println("  Liens vers des fichiers déjà comptés : " + fileScanner.getNombreDoublons());
+            }
+            if (fileScanner.getNombreBoucles() > 0) {
+                System.out.println("  Boucles de liens symboliques ignorées : " + fileScanner.getNombreBoucles());
+            }
+            long nombreEstimes = fichiers.stream().filter(FileInfo::estEstime).count();
+            if (nombreEstimes > 0) {
+                long nonAtteints = fichiers.stream()
+                    .filter(f -> f.getEstimation() != null && !f.getEstimation().estAtteinte()).count();
+                System.out.println("  Taille totale : ~" + formaterTaille(tailleTotale)
+                    + " (estimation, " + nombreEstimes + " dossier(s) estimé(s)"
+                    + (nonAtteints > 0 ? " dont " + nonAtteints + " " + EstimationTaille.NON_ESTIMEE + "(s)" : "")
+                    + ", " + fileScanner.getLecturesEstimation() + " dossier(s) lu(s))");
+            } else {
+                System.out.println("  Taille totale : " + formaterTaille(tailleTotale));
+            }
+            if (compteur != null) {
+                ScanStatistics.Contenu contenu = statistiques.getContenuTotal();
+                System.out.println("  Lignes : " + contenu.getLignes() + " ligne(s), " + contenu.getCaracteres()
+                    + " caractère(s) dans " + contenu.getNombre() + " fichier(s) texte ("
+                    + formaterTaille(compteur.getOctetsLus()) + " lus)");
+                if (compteur.getFichiersHorsBudget() > 0) {
+                    System.out.println("  Fichiers texte non lus (budget atteint) : " + compteur.getFichiersHorsBudget());
+                }
+            }
 
+        } catch (NumberFormatException e) {
+            System.err.println("Erreur : Valeur d'option invalide - " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Erreur : " + e.getMessage());
         } catch (IOException e) {
             System.err.println("Erreur lors de la génération du PDF : " + e.getMessage());
             e.printStackTrace();
@@ -109,6 +214,91 @@ public class FileListGenerator {
         }
     }
 
+    /**
+     * Recherche dans un index des noms enregistré lors d'un scan précédent (sans rescanner)
+     */
+    private static void chercherDansIndex(Map<String, String> options) {
+        Path fichierIndex = Paths.get(options.getOrDefault("index", "").isEmpty()
+            ? "liste_fichiers.index" : options.get("index"));
+        try {
+            int limite = Integer.parseInt(options.getOrDefault("limite", "100"));
+            FileNameIndex index = FileNameIndex.lire(fichierIndex);
+            long debut = System.nanoTime();
+            List<String> chemins = index.chercher(options.get("chercher"), limite);
+            double millisecondes = (System.nanoTime() - debut) / 1_000_000.0;
+            for (String chemin : chemins) {
+                System.out.println(chemin);
+            }
+            System.out.println();
+            System.out.println(String.format("%d résultat(s)%s sur %d entrée(s) indexée(s), en %.3f ms",
+                chemins.size(), limite > 0 && chemins.size() >= limite ? " (limite atteinte)" : "",
+                index.getNombreEntrees(), millisecondes));
+        } catch (NumberFormatException e) {
+            System.err.println("Erreur : Valeur d'option invalide - " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la lecture de l'index " + fichierIndex + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Construit le filtre des fichiers à partir des options (tailles en Mo, durées en jours
+     * comptées depuis minuit, catégories séparées par des virgules)
+     * @return Le filtre, ou null si aucune option de filtre n'est donnée
+     */
+    private static ScanFilter lireFiltre(Map<String, String> options) {
+        boolean taille = options.containsKey("taille-min") || options.containsKey("taille-max");
+        boolean modification = options.containsKey("modifie-depuis") || options.containsKey("non-modifie-depuis");
+        boolean categories = options.containsKey("categories");
+        if (!taille && !modification && !categories) {
+            return null;
+        }
+        ScanFilter filtre = new ScanFilter();
+        if (taille) {
+            filtre.setTaille(
+                options.containsKey("taille-min") ? (long) (Double.parseDouble(options.get("taille-min")) * 1024 * 1024) : 0,
+                options.containsKey("taille-max") ? (long) (Double.parseDouble(options.get("taille-max")) * 1024 * 1024)
+                    : Long.MAX_VALUE);
+        }
+        if (modification) {
+            filtre.setModification(joursAvant(options.get("modifie-depuis")), joursAvant(options.get("non-modifie-depuis")));
+        }
+        if (categories) {
+            filtre.setCategories(Arrays.asList(options.get("categories").split(",")));
+        }
+        return filtre;
+    }
+
+    /**
+     * @return Minuit, il y a le nombre de jours donné (null si non donné), pour un filtre identique tout au long
+     *         de la journée (reprise d'un scan interrompu)
+     */
+    private static Instant joursAvant(String jours) {
+        if (jours == null) {
+            return null;
+        }
+        return LocalDate.now().minusDays(Long.parseLong(jours)).atStartOfDay(ZoneId.systemDefault()).toInstant();
+    }
+
+    /**
+     * Lit les options de la ligne de commande (--nom ou --nom=valeur)
+     */
+    private static Map<String, String> lireOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                System.out.println("Option ignorée : " + arg);
+                continue;
+            }
+            int egal = arg.indexOf('=');
+            if (egal > 0) {
+                options.put(arg.substring(2, egal), arg.substring(egal + 1));
+            } else {
+                options.put(arg.substring(2), "");
+            }
+        }
+        return options;
+    }
+
     /**
      * Formate la taille en octets
      */
@@ -0,0 +1,706 @@
+package com.filelist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Index des noms de fichiers d'un scan, enregistrable à côté du PDF et interrogeable sans rescanner :
+ * recherche par sous-chaîne, par préfixe et par motif ({@code *} et {@code ?}), sans distinction de casse.
+ *
+ * Les noms distincts sont stockés une seule fois, triés et encodés en UTF-8 dans un même tableau ;
+ * les chemins sont reconstitués à partir d'un dictionnaire des dossiers parents. Chaque trigramme
+ * des noms en minuscules renvoie à la liste croissante des numéros de noms qui le contiennent,
+ * encodée par écarts en entiers de longueur variable.
+ *
+ * Un texte de moins de 3 caractères n'a pas de trigramme : une recherche de sous-chaîne aussi courte
+ * parcourt les noms un à un jusqu'à la limite de résultats, soit tout le dictionnaire pour un texte
+ * rare (plusieurs dizaines de millisecondes à 10 millions d'entrées, voir {@code FileNameIndexBenchmark}).
+ * Les préfixes et les motifs commençant par un littéral, même court, se limitent à la plage des noms triés.
+ */
+public class FileNameIndex {
+    private static final int SIGNATURE = 0x464C4958; // "FLIX"
+    private static final int VERSION = 1;
+    private static final int TAILLE_BLOC = 1 << 16;
+    /** Rapport maximal entre la longueur d'une liste et celle de la plus rare pour l'intersecter */
+    private static final int INTERSECTION_MAX = 32;
+    /** Nombre de noms entre deux points d'accès direct d'une liste */
+    private static final int SAUT = 128;
+
+    // Noms distincts (triés sans distinction de casse) et dossiers parents
+    private final byte[] noms;
+    private final int[] debutsNoms;
+    private final byte[] dossiers;
+    private final int[] debutsDossiers;
+    // Entrées regroupées par nom : dossiers des entrées du nom i entre debutsEntrees[i] et debutsEntrees[i + 1]
+    private final int[] debutsEntrees;
+    private final int[] dossiersEntrees;
+    // Trigrammes triés, avec le nombre et la position de leurs listes de noms
+    private final long[] trigrammes;
+    private final int[] nombresNoms;
+    private final int[] debutsListes;
+    private final byte[] listes;
+    // Points d'accès direct des listes (tous les SAUT noms) : nom précédent et position du nom suivant
+    private final int[] debutsSauts;
+    private final int[] sautsNoms;
+    private final int[] sautsPositions;
+
+    private FileNameIndex(byte[] noms, int[] debutsNoms, byte[] dossiers, int[] debutsDossiers,
+                          int[] debutsEntrees, int[] dossiersEntrees,
+                          long[] trigrammes, int[] nombresNoms, int[] debutsListes, byte[] listes,
+                          int[] debutsSauts, int[] sautsNoms, int[] sautsPositions) {
+        this.noms = noms;
+        this.debutsNoms = debutsNoms;
+        this.dossiers = dossiers;
+        this.debutsDossiers = debutsDossiers;
+        this.debutsEntrees = debutsEntrees;
+        this.dossiersEntrees = dossiersEntrees;
+        this.trigrammes = trigrammes;
+        this.nombresNoms = nombresNoms;
+        this.debutsListes = debutsListes;
+        this.listes = listes;
+        this.debutsSauts = debutsSauts;
+        this.sautsNoms = sautsNoms;
+        this.sautsPositions = sautsPositions;
+    }
+
+    /**
+     * Construit l'index des entrées d'un scan (fichiers, dossiers et entrées d'archives)
+     */
+    public static FileNameIndex construire(List<FileInfo> fichiers) {
+        Constructeur constructeur = new Constructeur();
+        for (FileInfo fichier : fichiers) {
+            Path parent = fichier.estVirtuel() ? fichier.getArchiveParente() : fichier.getCheminComplet().getParent();
+            constructeur.ajouter(fichier.getNom(), parent == null ? "" : parent.toString());
+        }
+        return constructeur.construire();
+    }
+
+    /**
+     * @return Le nombre d'entrées indexées
+     */
+    public int getNombreEntrees() {
+        return dossiersEntrees.length;
+    }
+
+    /**
+     * Recherche les entrées dont le nom correspond au motif : motif avec {@code *} ou {@code ?},
+     * sinon sous-chaîne du nom
+     * @param limite Le nombre maximal de chemins retournés (0 = illimité)
+     */
+    public List<String> chercher(String motif, int limite) {
+        if (motif.indexOf('*') >= 0 || motif.indexOf('?') >= 0) {
+            return rechercherMotif(motif, limite);
+        }
+        return rechercherSousChaine(motif, limite);
+    }
+
+    /**
+     * Recherche les entrées dont le nom contient le texte donné
+     */
+    public List<String> rechercherSousChaine(String texte, int limite) {
+        String cle = texte.toLowerCase(Locale.ROOT);
+        return rechercher(trigrammesDe(List.of(cle)), 0, nombreNoms(), nom -> nom.contains(cle), limite);
+    }
+
+    /**
+     * Recherche les entrées dont le nom commence par le préfixe donné
+     */
+    public List<String> rechercherPrefixe(String prefixe, int limite) {
+        String cle = prefixe.toLowerCase(Locale.ROOT);
+        return rechercher(trigrammesDe(List.of(cle)), premierNom(cle), premierNom(cle + Character.MAX_VALUE),
+            nom -> nom.startsWith(cle), limite);
+    }
+
+    /**
+     * Recherche les entrées dont le nom entier correspond au motif ({@code *} : suite quelconque
+     * de caractères, {@code ?} : un caractère)
+     */
+    public List<String> rechercherMotif(String motif, int limite) {
+        String cle = motif.toLowerCase(Locale.ROOT);
+        List<String> litteraux = new ArrayList<>();
+        StringBuilder expression = new StringBuilder();
+        StringBuilder litteral = new StringBuilder();
+        for (int i = 0; i <= cle.length(); i++) {
+            char c = i < cle.length() ? cle.charAt(i) : '*';
+            if (c == '*' || c == '?') {
+                litteraux.add(litteral.toString());
+                expression.append(Pattern.quote(litteral.toString()));
+                if (i < cle.length()) {
+                    expression.append(c == '*' ? ".*" : ".");
+                }
+                litteral.setLength(0);
+            } else {
+                litteral.append(c);
+            }
+        }
+        Pattern expressionReguliere = Pattern.compile(expression.toString(), Pattern.DOTALL);
+
+        // Le premier littéral est un préfixe commun à tous les noms correspondants
+        String prefixe = litteraux.get(0);
+        int debut = prefixe.isEmpty() ? 0 : premierNom(prefixe);
+        int fin = prefixe.isEmpty() ? nombreNoms() : premierNom(prefixe + Character.MAX_VALUE);
+        return rechercher(trigrammesDe(litteraux), debut, fin, nom -> expressionReguliere.matcher(nom).matches(), limite);
+    }
+
+    /**
+     * Parcourt les noms candidats et retourne les chemins des entrées dont le nom est accepté.
+     * Les candidats sont les noms de la plage [debut, fin), ou, si elle est plus courte, ceux de la liste
+     * du trigramme requis le plus rare également présents dans les listes des autres trigrammes
+     * (listes parcourues en parallèle, jusqu'à atteindre la limite)
+     * @param requis Les trigrammes que tout nom correspondant contient
+     * @param accepte Le test appliqué au nom en minuscules
+     */
+    private List<String> rechercher(long[] requis, int debut, int fin, Predicate<String> accepte, int limite) {
+        List<String> chemins = new ArrayList<>();
+        int plusRare = -1;
+        int[] positions = new int[requis.length];
+        for (int i = 0; i < requis.length; i++) {
+            positions[i] = Arrays.binarySearch(trigrammes, requis[i]);
+            if (positions[i] < 0) {
+                return chemins; // Aucun nom ne contient ce trigramme
+            }
+            if (plusRare < 0 || nombresNoms[positions[i]] < nombresNoms[plusRare]) {
+                plusRare = positions[i];
+            }
+        }
+
+        if (plusRare < 0 || nombresNoms[plusRare] >= fin - debut) {
+            for (int nom = debut; nom < fin; nom++) {
+                if (!ajouterSiAccepte(nom, accepte, chemins, limite)) {
+                    break;
+                }
+            }
+            return chemins;
+        }
+
+        // Les listes beaucoup plus longues que la plus rare coûteraient plus à parcourir
+        // que la vérification des noms qu'elles permettraient d'écarter
+        List<LecteurListe> autres = new ArrayList<>();
+        for (int position : positions) {
+            if (position != plusRare && nombresNoms[position] <= INTERSECTION_MAX * (long) nombresNoms[plusRare]) {
+                autres.add(new LecteurListe(position));
+            }
+        }
+        LecteurListe lecteur = new LecteurListe(plusRare);
+        lecteur.sauter(debut);
+        candidats:
+        while (lecteur.suivant() && lecteur.nom < fin) {
+            if (lecteur.nom < debut) {
+                continue;
+            }
+            for (LecteurListe autre : autres) {
+                if (!autre.contient(lecteur.nom)) {
+                    continue candidats;
+                }
+            }
+            if (!ajouterSiAccepte(lecteur.nom, accepte, chemins, limite)) {
+                break;
+            }
+        }
+        return chemins;
+    }
+
+    /**
+     * Ajoute les chemins des entrées du nom s'il est accepté
+     * @return false si la limite est atteinte
+     */
+    private boolean ajouterSiAccepte(int nom, Predicate<String> accepte, List<String> chemins, int limite) {
+        String texte = nom(nom);
+        if (accepte.test(texte.toLowerCase(Locale.ROOT))) {
+            for (int i = debutsEntrees[nom]; i < debutsEntrees[nom + 1]; i++) {
+                if (limite > 0 && chemins.size() >= limite) {
+                    return false;
+                }
+                String dossier = texte(dossiers, debutsDossiers, dossiersEntrees[i]);
+                chemins.add(dossier.isEmpty() ? texte : dossier + File.separator + texte);
+            }
+        }
+        return limite <= 0 || chemins.size() < limite;
+    }
+
+    /**
+     * @return Le numéro du premier nom supérieur ou égal à la clé (en minuscules)
+     */
+    private int premierNom(String cle) {
+        int bas = 0;
+        int haut = nombreNoms();
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (nom(milieu).toLowerCase(Locale.ROOT).compareTo(cle) < 0) {
+                bas = milieu + 1;
+            } else {
+                haut = milieu;
+            }
+        }
+        return bas;
+    }
+
+    private int nombreNoms() {
+        return debutsNoms.length - 1;
+    }
+
+    private String nom(int numero) {
+        return texte(noms, debutsNoms, numero);
+    }
+
+    private static String texte(byte[] octets, int[] debuts, int numero) {
+        return new String(octets, debuts[numero], debuts[numero + 1] - debuts[numero], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return Les trigrammes distincts des textes donnés
+     */
+    private static long[] trigrammesDe(List<String> textes) {
+        List<Long> resultat = new ArrayList<>();
+        for (String texte : textes) {
+            for (int i = 0; i + 3 <= texte.length(); i++) {
+                long trigramme = trigramme(texte, i);
+                if (!resultat.contains(trigramme)) {
+                    resultat.add(trigramme);
+                }
+            }
+        }
+        return resultat.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long trigramme(String texte, int position) {
+        return ((long) texte.charAt(position) << 32) | ((long) texte.charAt(position + 1) << 16) | texte.charAt(position + 2);
+    }
+
+    /**
+     * Écrit l'index dans un fichier
+     */
+    public void ecrire(Path fichier) throws IOException {
+        try (DataOutputStream sortie = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(fichier), TAILLE_BLOC))) {
+            sortie.writeInt(SIGNATURE);
+            sortie.writeInt(VERSION);
+            ecrireOctets(sortie, noms);
+            ecrireEntiers(sortie, debutsNoms);
+            ecrireOctets(sortie, dossiers);
+            ecrireEntiers(sortie, debutsDossiers);
+            ecrireEntiers(sortie, debutsEntrees);
+            ecrireEntiers(sortie, dossiersEntrees);
+            sortie.writeInt(trigrammes.length);
+            ByteBuffer tampon = ByteBuffer.allocate(TAILLE_BLOC);
+            for (long trigramme : trigrammes) {
+                if (tampon.remaining() < Long.BYTES) {
+                    sortie.write(tampon.array(), 0, tampon.position());
+                    tampon.clear();
+                }
+                tampon.putLong(trigramme);
+            }
+            sortie.write(tampon.array(), 0, tampon.position());
+            ecrireEntiers(sortie, nombresNoms);
+            ecrireEntiers(sortie, debutsListes);
+            ecrireOctets(sortie, listes);
+            ecrireEntiers(sortie, debutsSauts);
+            ecrireEntiers(sortie, sautsNoms);
+            ecrireEntiers(sortie, sautsPositions);
+        }
+    }
+
+    /**
+     * Relit un index écrit par {@link #ecrire(Path)}
+     */
+    public static FileNameIndex lire(Path fichier) throws IOException {
+        try (DataInputStream entree = new DataInputStream(new BufferedInputStream(Files.newInputStream(fichier), TAILLE_BLOC))) {
+            if (entree.readInt() != SIGNATURE || entree.readInt() != VERSION) {
+                throw new IOException("format d'index inconnu");
+            }
+            byte[] noms = lireOctets(entree);
+            int[] debutsNoms = lireEntiers(entree);
+            byte[] dossiers = lireOctets(entree);
+            int[] debutsDossiers = lireEntiers(entree);
+            int[] debutsEntrees = lireEntiers(entree);
+            int[] dossiersEntrees = lireEntiers(entree);
+            long[] trigrammes = new long[entree.readInt()];
+            byte[] bloc = new byte[TAILLE_BLOC];
+            for (int i = 0; i < trigrammes.length; ) {
+                int nombre = Math.min(trigrammes.length - i, TAILLE_BLOC / Long.BYTES);
+                entree.readFully(bloc, 0, nombre * Long.BYTES);
+                ByteBuffer.wrap(bloc, 0, nombre * Long.BYTES).asLongBuffer().get(trigrammes, i, nombre);
+                i += nombre;
+            }
+            int[] nombresNoms = lireEntiers(entree);
+            int[] debutsListes = lireEntiers(entree);
+            byte[] listes = lireOctets(entree);
+            int[] debutsSauts = lireEntiers(entree);
+            int[] sautsNoms = lireEntiers(entree);
+            int[] sautsPositions = lireEntiers(entree);
+            return new FileNameIndex(noms, debutsNoms, dossiers, debutsDossiers, debutsEntrees, dossiersEntrees,
+                trigrammes, nombresNoms, debutsListes, listes, debutsSauts, sautsNoms, sautsPositions);
+        }
+    }
+
+    private static void ecrireOctets(DataOutputStream sortie, byte[] octets) throws IOException {
+        sortie.writeInt(octets.length);
+        sortie.write(octets);
+    }
+
+    private static byte[] lireOctets(DataInputStream entree) throws IOException {
+        byte[] octets = new byte[entree.readInt()];
+        entree.readFully(octets);
+        return octets;
+    }
+
+    private static void ecrireEntiers(DataOutputStream sortie, int[] entiers) throws IOException {
+        sortie.writeInt(entiers.length);
+        ByteBuffer tampon = ByteBuffer.allocate(TAILLE_BLOC);
+        for (int i = 0; i < entiers.length; ) {
+            int nombre = Math.min(entiers.length - i, TAILLE_BLOC / Integer.BYTES);
+            tampon.clear();
+            tampon.asIntBuffer().put(entiers, i, nombre);
+            sortie.write(tampon.array(), 0, nombre * Integer.BYTES);
+            i += nombre;
+        }
+    }
+
+    private static int[] lireEntiers(DataInputStream entree) throws IOException {
+        int[] entiers = new int[entree.readInt()];
+        byte[] bloc = new byte[TAILLE_BLOC];
+        for (int i = 0; i < entiers.length; ) {
+            int nombre = Math.min(entiers.length - i, TAILLE_BLOC / Integer.BYTES);
+            entree.readFully(bloc, 0, nombre * Integer.BYTES);
+            ByteBuffer.wrap(bloc, 0, nombre * Integer.BYTES).asIntBuffer().get(entiers, i, nombre);
+            i += nombre;
+        }
+        return entiers;
+    }
+
+    /**
+     * Construction de l'index par ajouts successifs (nom et dossier parent de chaque entrée)
+     */
+    static final class Constructeur {
+        private final Map<String, Integer> numerosNoms = new HashMap<>();
+        private final Map<String, Integer> numerosDossiers = new HashMap<>();
+        private final List<String> listeNoms = new ArrayList<>();
+        private final List<String> listeDossiers = new ArrayList<>();
+        private int[] nomsEntrees = new int[1024];
+        private int[] dossiersEntrees = new int[1024];
+        private int nombreEntrees;
+
+        void ajouter(String nom, String dossier) {
+            if (nombreEntrees == nomsEntrees.length) {
+                nomsEntrees = Arrays.copyOf(nomsEntrees, nombreEntrees * 2);
+                dossiersEntrees = Arrays.copyOf(dossiersEntrees, nombreEntrees * 2);
+            }
+            nomsEntrees[nombreEntrees] = numero(nom, numerosNoms, listeNoms);
+            dossiersEntrees[nombreEntrees] = numero(dossier, numerosDossiers, listeDossiers);
+            nombreEntrees++;
+        }
+
+        private static int numero(String texte, Map<String, Integer> numeros, List<String> liste) {
+            Integer numero = numeros.get(texte);
+            if (numero == null) {
+                numero = liste.size();
+                numeros.put(texte, numero);
+                liste.add(texte);
+            }
+            return numero;
+        }
+
+        FileNameIndex construire() {
+            // Tri des noms distincts sans distinction de casse
+            int nombreNoms = listeNoms.size();
+            String[] minuscules = new String[nombreNoms];
+            Integer[] ordre = new Integer[nombreNoms];
+            for (int i = 0; i < nombreNoms; i++) {
+                minuscules[i] = listeNoms.get(i).toLowerCase(Locale.ROOT);
+                ordre[i] = i;
+            }
+            Arrays.sort(ordre, (a, b) -> {
+                int comparaison = minuscules[a].compareTo(minuscules[b]);
+                return comparaison != 0 ? comparaison : listeNoms.get(a).compareTo(listeNoms.get(b));
+            });
+            int[] rang = new int[nombreNoms];
+            for (int i = 0; i < nombreNoms; i++) {
+                rang[ordre[i]] = i;
+            }
+
+            // Entrées regroupées par nom
+            int[] debutsEntrees = new int[nombreNoms + 1];
+            for (int i = 0; i < nombreEntrees; i++) {
+                debutsEntrees[rang[nomsEntrees[i]] + 1]++;
+            }
+            for (int i = 0; i < nombreNoms; i++) {
+                debutsEntrees[i + 1] += debutsEntrees[i];
+            }
+            int[] positions = Arrays.copyOf(debutsEntrees, nombreNoms);
+            int[] dossiersParNom = new int[nombreEntrees];
+            for (int i = 0; i < nombreEntrees; i++) {
+                dossiersParNom[positions[rang[nomsEntrees[i]]]++] = dossiersEntrees[i];
+            }
+
+            // Listes des noms par trigramme, remplies dans l'ordre croissant des noms
+            TableTrigrammes listesParTrigramme = new TableTrigrammes();
+            List<String> nomsTries = new ArrayList<>(nombreNoms);
+            long[] trigrammesNom = new long[16];
+            for (int nom = 0; nom < nombreNoms; nom++) {
+                String minuscule = minuscules[ordre[nom]];
+                nomsTries.add(listeNoms.get(ordre[nom]));
+                int nombre = Math.max(0, minuscule.length() - 2);
+                if (trigrammesNom.length < nombre) {
+                    trigrammesNom = new long[nombre];
+                }
+                for (int i = 0; i < nombre; i++) {
+                    trigrammesNom[i] = trigramme(minuscule, i);
+                }
+                Arrays.sort(trigrammesNom, 0, nombre);
+                for (int i = 0; i < nombre; i++) {
+                    if (i == 0 || trigrammesNom[i] != trigrammesNom[i - 1]) {
+                        listesParTrigramme.liste(trigrammesNom[i]).ajouter(nom);
+                    }
+                }
+            }
+
+            // Concaténation des listes dans l'ordre des trigrammes
+            long[] trigrammes = listesParTrigramme.trigrammesTries();
+            int nombreTrigrammes = trigrammes.length;
+            ListeNoms[] listesTriees = new ListeNoms[nombreTrigrammes];
+            int[] nombresNoms = new int[nombreTrigrammes];
+            int[] debutsListes = new int[nombreTrigrammes + 1];
+            int[] debutsSauts = new int[nombreTrigrammes + 1];
+            for (int i = 0; i < nombreTrigrammes; i++) {
+                listesTriees[i] = listesParTrigramme.liste(trigrammes[i]);
+                nombresNoms[i] = listesTriees[i].nombre;
+                debutsListes[i + 1] = debutsListes[i] + listesTriees[i].longueur;
+                debutsSauts[i + 1] = debutsSauts[i] + listesTriees[i].nombreSauts;
+            }
+            byte[] listes = new byte[debutsListes[nombreTrigrammes]];
+            int[] sautsNoms = new int[debutsSauts[nombreTrigrammes]];
+            int[] sautsPositions = new int[debutsSauts[nombreTrigrammes]];
+            for (int i = 0; i < nombreTrigrammes; i++) {
+                ListeNoms liste = listesTriees[i];
+                System.arraycopy(liste.octets, 0, listes, debutsListes[i], liste.longueur);
+                for (int j = 0; j < liste.nombreSauts; j++) {
+                    sautsNoms[debutsSauts[i] + j] = liste.sautsNoms[j];
+                    sautsPositions[debutsSauts[i] + j] = debutsListes[i] + liste.sautsPositions[j];
+                }
+            }
+
+            Textes noms = new Textes(nomsTries);
+            Textes dossiers = new Textes(listeDossiers);
+            return new FileNameIndex(noms.octets, noms.debuts, dossiers.octets, dossiers.debuts,
+                debutsEntrees, dossiersParNom, trigrammes, nombresNoms, debutsListes, listes,
+                debutsSauts, sautsNoms, sautsPositions);
+        }
+    }
+
+    /**
+     * Lecture séquentielle de la liste des noms d'un trigramme
+     */
+    private final class LecteurListe {
+        private final int trigramme;
+        private int position;
+        private int restants;
+        private int nom;
+        private boolean commence;
+        private int saut;
+
+        LecteurListe(int trigramme) {
+            this.trigramme = trigramme;
+            this.position = debutsListes[trigramme];
+            this.restants = nombresNoms[trigramme];
+            this.saut = debutsSauts[trigramme];
+        }
+
+        /**
+         * Saute directement après le dernier point d'accès dont le nom précède la cible
+         */
+        void sauter(int cible) {
+            int dernier = -1;
+            while (saut < debutsSauts[trigramme + 1] && sautsNoms[saut] < cible) {
+                dernier = saut++;
+            }
+            if (dernier >= 0 && sautsPositions[dernier] > position) {
+                position = sautsPositions[dernier];
+                nom = sautsNoms[dernier];
+                restants = nombresNoms[trigramme] - (dernier - debutsSauts[trigramme] + 1) * SAUT;
+                commence = true;
+            }
+        }
+
+        /**
+         * Passe au nom suivant de la liste
+         * @return false si la liste est terminée
+         */
+        boolean suivant() {
+            if (restants == 0) {
+                return false;
+            }
+            restants--;
+            int ecart = 0;
+            int decalage = 0;
+            byte octet;
+            do {
+                octet = listes[position++];
+                ecart |= (octet & 0x7F) << decalage;
+                decalage += 7;
+            } while (octet < 0);
+            nom += ecart;
+            commence = true;
+            return true;
+        }
+
+        /**
+         * Avance jusqu'au nom donné (les noms demandés doivent être croissants)
+         * @return true si la liste contient ce nom
+         */
+        boolean contient(int cible) {
+            if (!commence || nom < cible) {
+                sauter(cible);
+            }
+            while (!commence || nom < cible) {
+                if (!suivant()) {
+                    return false;
+                }
+            }
+            return nom == cible;
+        }
+    }
+
+    /**
+     * Liste croissante de numéros de noms, encodée par écarts (7 bits par octet, bit de poids fort = suite)
+     */
+    private static final class ListeNoms {
+        private static final int[] VIDE = {};
+
+        private byte[] octets = new byte[4];
+        private int longueur;
+        private int nombre;
+        private int dernier;
+        private int[] sautsNoms = VIDE;
+        private int[] sautsPositions = VIDE;
+        private int nombreSauts;
+
+        void ajouter(int nom) {
+            if (longueur + 5 > octets.length) {
+                octets = Arrays.copyOf(octets, octets.length * 2);
+            }
+            if (nombre > 0 && nombre % SAUT == 0) {
+                if (nombreSauts == sautsNoms.length) {
+                    sautsNoms = Arrays.copyOf(sautsNoms, Math.max(4, nombreSauts * 2));
+                    sautsPositions = Arrays.copyOf(sautsPositions, sautsNoms.length);
+                }
+                sautsNoms[nombreSauts] = dernier;
+                sautsPositions[nombreSauts++] = longueur;
+            }
+            int ecart = nom - dernier;
+            while ((ecart & ~0x7F) != 0) {
+                octets[longueur++] = (byte) ((ecart & 0x7F) | 0x80);
+                ecart >>>= 7;
+            }
+            octets[longueur++] = (byte) ecart;
+            dernier = nom;
+            nombre++;
+        }
+    }
+
+    /**
+     * Table à adressage ouvert associant à chaque trigramme la liste de ses noms
+     */
+    private static final class TableTrigrammes {
+        private long[] cles = new long[1024];
+        private ListeNoms[] listes = new ListeNoms[1024];
+        private int taille;
+
+        ListeNoms liste(long trigramme) {
+            int masque = cles.length - 1;
+            int position = (int) melanger(trigramme) & masque;
+            while (listes[position] != null) {
+                if (cles[position] == trigramme) {
+                    return listes[position];
+                }
+                position = (position + 1) & masque;
+            }
+            ListeNoms liste = new ListeNoms();
+            cles[position] = trigramme;
+            listes[position] = liste;
+            taille++;
+            // Facteur de charge maximal de 0,5
+            if (taille * 2 > cles.length) {
+                agrandir();
+            }
+            return liste;
+        }
+
+        long[] trigrammesTries() {
+            long[] trigrammes = new long[taille];
+            int nombre = 0;
+            for (int i = 0; i < cles.length; i++) {
+                if (listes[i] != null) {
+                    trigrammes[nombre++] = cles[i];
+                }
+            }
+            Arrays.sort(trigrammes);
+            return trigrammes;
+        }
+
+        private void agrandir() {
+            long[] anciennesCles = cles;
+            ListeNoms[] anciennesListes = listes;
+            cles = new long[anciennesCles.length * 2];
+            listes = new ListeNoms[cles.length];
+            int masque = cles.length - 1;
+            for (int i = 0; i < anciennesCles.length; i++) {
+                if (anciennesListes[i] != null) {
+                    int position = (int) melanger(anciennesCles[i]) & masque;
+                    while (listes[position] != null) {
+                        position = (position + 1) & masque;
+                    }
+                    cles[position] = anciennesCles[i];
+                    listes[position] = anciennesListes[i];
+                }
+            }
+        }
+
+        /**
+         * Mélange des bits (finaliseur de MurmurHash3) : les trigrammes voisins diffèrent peu
+         */
+        private static long melanger(long valeur) {
+            valeur ^= valeur >>> 33;
+            valeur *= 0xff51afd7ed558ccdL;
+            valeur ^= valeur >>> 33;
+            valeur *= 0xc4ceb9fe1a85ec53L;
+            valeur ^= valeur >>> 33;
+            return valeur;
+        }
+    }
+
+    /**
+     * Textes encodés en UTF-8 dans un même tableau (le texte i occupe [debuts[i], debuts[i + 1]))
+     */
+    private static final class Textes {
+        private final byte[] octets;
+        private final int[] debuts;
+
+        Textes(List<String> textes) {
+            debuts = new int[textes.size() + 1];
+            byte[][] encodes = new byte[textes.size()][];
+            for (int i = 0; i < textes.size(); i++) {
+                encodes[i] = textes.get(i).getBytes(StandardCharsets.UTF_8);
+                debuts[i + 1] = debuts[i] + encodes[i].length;
+            }
+            octets = new byte[debuts[textes.size()]];
+            for (int i = 0; i < encodes.length; i++) {
+                System.arraycopy(encodes[i], 0, octets, debuts[i], encodes[i].length);
+            }
+        }
+    }
+}
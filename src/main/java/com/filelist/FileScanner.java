@@ -1,11 +1,22 @@
 package com.filelist;
 
 import java.io.IOException;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -15,6 +26,23 @@ public class FileScanner {
     private static final Set<String> EXTENSIONS_INUTILES = new HashSet<>();
     private static final Set<String> NOMS_INUTILES = new HashSet<>();
 
+    private boolean inspecterArchives = false;
+    private Duration budgetEstimation = null;
+    private long lecturesMaxEstimation = 0;
+    private long lecturesEstimation;
+    private boolean suivreLiens = false;
+    private boolean dedoublonnerLiens = true;
+    private long nombreDoublons;
+    private long nombreBoucles;
+    private boolean conserverFichiers = true;
+    private ScanStatistics statistiques = new ScanStatistics();
+    private Path fichierReprise = null;
+    private Duration intervalleReprise = Duration.ofSeconds(30);
+    private int dossiersRepris;
+    private IoThrottle limiteur = null;
+    private int nombreProcessus = 0;
+    private ScanFilter filtre = null;
+
     static {
         // Extensions de fichiers inutiles
         EXTENSIONS_INUTILES.add("tmp");
@@ -34,6 +62,127 @@ public class FileScanner {
         NOMS_INUTILES.add(".vscode");
     }
 
+    /**
+     * Active le listage du contenu des archives (ZIP, TAR) sous forme d'entrées virtuelles
+     */
+    public void setInspecterArchives(boolean inspecterArchives) {
+        this.inspecterArchives = inspecterArchives;
+    }
+
+    /**
+     * Active le mode approximatif : la taille des dossiers est estimée par échantillonnage
+     * dans le budget donné au lieu d'être calculée exactement. Les liens physiques ne sont
+     * dédoublonnés que parmi les fichiers listés, pas dans les dossiers estimés
+     * @param budget Le temps alloué à l'estimation (null pour désactiver le mode approximatif)
+     * @param lecturesMax Le nombre maximal de dossiers lus pendant l'estimation (0 = illimité)
+     */
+    public void setModeApproximatif(Duration budget, long lecturesMax) {
+        this.budgetEstimation = budget;
+        this.lecturesMaxEstimation = lecturesMax;
+    }
+
+    /**
+     * Active le suivi des liens symboliques vers des dossiers (les boucles sont détectées et ignorées)
+     */
+    public void setSuivreLiens(boolean suivreLiens) {
+        this.suivreLiens = suivreLiens;
+    }
+
+    /**
+     * Active le dédoublonnage des fichiers physiques (liens physiques multiples, liens symboliques) :
+     * chaque fichier physique n'est compté qu'une fois, pour le premier lien rencontré
+     */
+    public void setDedoublonnerLiens(boolean dedoublonnerLiens) {
+        this.dedoublonnerLiens = dedoublonnerLiens;
+    }
+
+    /**
+     * @return Le nombre de liens vers un fichier physique déjà compté lors du dernier scan
+     */
+    public long getNombreDoublons() {
+        return nombreDoublons;
+    }
+
+    /**
+     * @return Le nombre de boucles de liens symboliques ignorées lors du dernier scan
+     */
+    public long getNombreBoucles() {
+        return nombreBoucles;
+    }
+
+    /**
+     * Indique si les fichiers sont conservés individuellement dans le résultat du scan.
+     * Sinon, seuls les dossiers sont retournés et les fichiers ne sont comptés que dans les
+     * statistiques (sans détection du type MIME par le contenu)
+     */
+    public void setConserverFichiers(boolean conserverFichiers) {
+        this.conserverFichiers = conserverFichiers;
+    }
+
+    /**
+     * Active les points de reprise (mode exact) : l'état du calcul de la taille des dossiers est écrit
+     * régulièrement dans le fichier donné, à partir duquel un scan interrompu reprend.
+     * Le fichier est supprimé à la fin du scan.
+     * Seul ce calcul est repris : le listage (détection du type MIME, contenu des archives) n'est pas
+     * enregistré, et un scan interrompu avant le premier point de reprise recommence depuis le début.
+     * À la reprise, le listage est refait et doit être identique pour que le point soit utilisé.
+     * @param fichier Le fichier de reprise (null pour désactiver)
+     * @param intervalle L'intervalle minimal entre deux écritures
+     */
+    public void setReprise(Path fichier, Duration intervalle) {
+        this.fichierReprise = fichier;
+        this.intervalleReprise = intervalle;
+    }
+
+    /**
+     * Limite le débit des lectures de métadonnées (attributs, contenu des dossiers) pendant le scan
+     * @param limiteur Le limiteur de débit (null pour ne pas limiter)
+     */
+    public void setLimiteur(IoThrottle limiteur) {
+        this.limiteur = limiteur;
+    }
+
+    /**
+     * Répartit le scan entre plusieurs processus ({@link ShardWorker}) : chaque dossier de premier niveau
+     * est scanné séparément, puis les résultats sont fusionnés avec des tailles et statistiques identiques
+     * à celles d'un scan en un seul processus. Incompatible avec le suivi des liens, le mode approximatif
+     * et les points de reprise.
+     * @param nombreProcessus Le nombre de processus simultanés (0 = scan dans le processus courant)
+     */
+    public void setProcessus(int nombreProcessus) {
+        this.nombreProcessus = nombreProcessus;
+    }
+
+    /**
+     * Filtre les fichiers pendant le parcours (taille, date de modification, catégorie) : les fichiers
+     * refusés ne sont ni listés, ni comptés dans la taille des dossiers et les statistiques
+     * @param filtre Le filtre (null pour accepter tous les fichiers)
+     */
+    public void setFiltre(ScanFilter filtre) {
+        this.filtre = filtre;
+    }
+
+    /**
+     * @return Le nombre de dossiers dont la taille a été reprise d'un point de reprise lors du dernier scan
+     */
+    public int getDossiersRepris() {
+        return dossiersRepris;
+    }
+
+    /**
+     * @return Le nombre de dossiers lus par l'estimation lors du dernier scan (mode approximatif)
+     */
+    public long getLecturesEstimation() {
+        return lecturesEstimation;
+    }
+
+    /**
+     * @return Les statistiques (par catégorie, extension et profondeur) du dernier scan
+     */
+    public ScanStatistics getStatistiques() {
+        return statistiques;
+    }
+
     /**
      * Scanne récursivement un répertoire et retourne la liste des fichiers valides
      * @param repertoire Le répertoire à scanner
@@ -51,66 +200,172 @@ public class FileScanner {
             throw new IllegalArgumentException("La profondeur maximale doit être au moins 1");
         }
 
-        // Étape 1 : Collecter tous les fichiers et dossiers jusqu'à la profondeur maximale
-        // (nécessaire pour calculer les tailles des dossiers)
+        nombreDoublons = 0;
+        nombreBoucles = 0;
+        lecturesEstimation = 0;
+        statistiques = new ScanStatistics();
+        if (nombreProcessus > 0) {
+            if (suivreLiens || budgetEstimation != null || fichierReprise != null) {
+                throw new IllegalArgumentException("Le scan en plusieurs processus n'est pas compatible avec "
+                    + "le suivi des liens, le mode approximatif et les points de reprise");
+            }
+            // Étapes 1 à 3 pour chaque élément de premier niveau, dans des processus séparés
+            ShardResult resultat = new ShardCoordinator(this, nombreProcessus).scanner(repertoire, profondeurMax);
+            statistiques = resultat.getStatistiques();
+            nombreDoublons = resultat.getNombreDoublons();
+            nombreBoucles = resultat.getNombreBoucles();
+            fichiers.addAll(resultat.getFichiers());
+            fichiers.addAll(resultat.getDossiers());
+            return avecArchives(fichiers);
+        }
+
+        // Étape 1 : Collecter en un seul parcours les fichiers et dossiers jusqu'à la profondeur maximale
+        // (les fichiers scannés sont mémorisés pour être exclus du calcul de la taille des dossiers)
+        FileKeySet clesVues = dedoublonnerLiens ? new FileKeySet() : null;
         Set<Path> fichiersScannes = new HashSet<>();
         try {
-            Files.walk(repertoire, profondeurMax)
-                .filter(path -> !path.equals(repertoire)) // Exclure le répertoire racine lui-même
-                .forEach(path -> {
-                    try {
-                        if (Files.isRegularFile(path) && !estFichierInutile(path)) {
-                            // Normaliser le chemin pour garantir une comparaison correcte
-                            fichiersScannes.add(path.normalize().toAbsolutePath());
-                        }
-                    } catch (Exception e) {
-                        // Ignorer les fichiers/dossiers qui ne peuvent pas être lus
-                        System.err.println("Erreur lors de la lecture de " + path + ": " + e.getMessage());
-                    }
-                });
+            collecter(repertoire, repertoire, profondeurMax, false, fichiers, dossiers, fichiersScannes, clesVues);
         } catch (IOException e) {
             throw new IOException("Erreur lors du scan du répertoire : " + e.getMessage(), e);
         }
+
+        // Étape 2 : Créer un set des dossiers listés pour exclure leurs fichiers du calcul de taille
+        Set<Path> dossiersListes = normaliser(dossiers);
         
-        // Étape 1b : Collecter les fichiers et dossiers jusqu'à la profondeur demandée
-        try {
-            Files.walk(repertoire, profondeurMax)
-                .filter(path -> !path.equals(repertoire)) // Exclure le répertoire racine lui-même
-                .filter(path -> {
-                    // Calculer la profondeur du chemin
-                    int profondeur = calculerProfondeur(path, repertoire);
-                    // Garder tous les fichiers et dossiers jusqu'à la profondeur demandée
-                    return profondeur <= profondeurMax;
-                })
-                .forEach(path -> {
-                    try {
-                        if (Files.isRegularFile(path) && !estFichierInutile(path)) {
-                            FileInfo info = creerFileInfo(path, false);
-                            fichiers.add(info);
-                        } else if (Files.isDirectory(path) && !estDossierInutile(path)) {
-                            dossiers.add(path); // Collecter les dossiers pour traitement ultérieur
-                        }
-                    } catch (Exception e) {
-                        // Ignorer les fichiers/dossiers qui ne peuvent pas être lus
-                        System.err.println("Erreur lors de la lecture de " + path + ": " + e.getMessage());
-                    }
-                });
-        } catch (IOException e) {
-            throw new IOException("Erreur lors du scan du répertoire : " + e.getMessage(), e);
+        // Étape 3 : Calculer la taille des dossiers en excluant les fichiers déjà scannés
+        if (budgetEstimation != null) {
+            // Mode approximatif : estimation par échantillonnage dans le budget alloué
+            // (les fichiers non explorés ne peuvent pas figurer dans les statistiques)
+            statistiques.marquerPartielles();
+            SizeEstimator estimateur = new SizeEstimator(profondeurMax,
+                (fichier, attrs) -> estFichierInutile(fichier) || (filtre != null && !filtre.accepte(fichier, attrs)),
+                this::estDossierInutile);
+            estimateur.setLimiteur(limiteur);
+            Map<Path, EstimationTaille> estimations = estimateur.estimer(repertoire, dossiers,
+                budgetEstimation, lecturesMaxEstimation);
+            lecturesEstimation = estimateur.getLectures();
+            for (Path dossier : dossiers) {
+                FileInfo info = creerFileInfoDossier(dossier, 0);
+                info.setEstimation(estimations.get(dossier));
+                fichiers.add(info);
+            }
+        } else {
+            fichiers.addAll(calculerTaillesDossiers(repertoire, profondeurMax, dossiers, fichiersScannes, dossiersListes, clesVues));
         }
 
-        // Étape 2 : Créer un set des dossiers listés pour exclure leurs fichiers du calcul de taille
+        return avecArchives(fichiers);
+    }
+
+    /**
+     * Scanne une partie du répertoire : un élément de premier niveau et son contenu, avec les mêmes
+     * profondeurs et dans le même ordre que lors du scan complet du répertoire (hors archives).
+     * Les fichiers physiques déjà comptés dans une autre partie peuvent être fournis pour ne pas les recompter.
+     * @param partie L'élément de premier niveau du répertoire
+     * @param clesPrealables Les fichiers physiques comptés dans d'autres parties (null si aucun)
+     * @param avecCles Indique si le résultat doit contenir les fichiers physiques comptés
+     */
+    public ShardResult scannerPartie(Path repertoire, Path partie, int profondeurMax, FileKeySet clesPrealables,
+                                     boolean avecCles) throws IOException {
+        List<FileInfo> fichiers = new ArrayList<>();
+        List<Path> dossiers = new ArrayList<>();
+        FileKeySet clesVues = !dedoublonnerLiens ? null : clesPrealables != null ? clesPrealables : new FileKeySet();
+        nombreDoublons = 0;
+        nombreBoucles = 0;
+        statistiques = new ScanStatistics();
+        Set<Path> fichiersScannes = new HashSet<>();
+        collecter(repertoire, partie, profondeurMax - 1, true, fichiers, dossiers, fichiersScannes, clesVues);
+        FileKeySet clesEtape1 = avecCles && clesVues != null ? clesVues.copier() : null;
+        List<FileInfo> infosDossiers = calculerTaillesDossiers(repertoire, profondeurMax, dossiers, fichiersScannes,
+            normaliser(dossiers), clesVues);
+        return new ShardResult(fichiers, infosDossiers, statistiques, nombreDoublons, nombreBoucles,
+            clesEtape1, avecCles ? clesVues : null);
+    }
+
+    /**
+     * @return Un scanner avec les mêmes options, pour scanner une partie en parallèle
+     */
+    FileScanner copierOptions() {
+        FileScanner copie = new FileScanner();
+        copie.inspecterArchives = inspecterArchives;
+        copie.suivreLiens = suivreLiens;
+        copie.dedoublonnerLiens = dedoublonnerLiens;
+        copie.conserverFichiers = conserverFichiers;
+        copie.limiteur = limiteur;
+        copie.filtre = filtre;
+        return copie;
+    }
+
+    boolean dedoublonneLiens() {
+        return dedoublonnerLiens;
+    }
+
+    boolean conserveFichiers() {
+        return conserverFichiers;
+    }
+
+    IoThrottle getLimiteur() {
+        return limiteur;
+    }
+
+    ScanFilter getFiltre() {
+        return filtre;
+    }
+
+    /**
+     * Étape 1 : collecte en un seul parcours les fichiers et dossiers jusqu'à la profondeur maximale
+     * (les fichiers scannés sont mémorisés pour être exclus du calcul de la taille des dossiers)
+     * @param depart Le point de départ du parcours
+     * @param inclureDepart Indique si le point de départ est lui-même collecté (partie d'un scan réparti)
+     */
+    private void collecter(Path repertoire, Path depart, int profondeurMax, boolean inclureDepart, List<FileInfo> fichiers,
+                           List<Path> dossiers, Set<Path> fichiersScannes, FileKeySet clesVues) throws IOException {
+        parcourir(depart, profondeurMax, inclureDepart, (path, attrs) -> {
+            if (attrs.isRegularFile() && !estFichierInutile(path)) {
+                // Filtre sur les attributs et l'extension, avant toute détection du type MIME : un fichier
+                // refusé l'est aussi lors du calcul de la taille des dossiers
+                if (filtre != null && !filtre.accepte(path, attrs)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                // Normaliser le chemin pour garantir une comparaison correcte
+                fichiersScannes.add(path.normalize().toAbsolutePath());
+                if (conserverFichiers) {
+                    FileInfo info = creerFileInfo(path, attrs);
+                    boolean compte = clesVues == null || compterLien(clesVues, attrs);
+                    if (compte) {
+                        // Catégorie de l'extension, comme pour les fichiers comptés sans FileInfo
+                        statistiques.enregistrer(ScanStatistics.categorie(info),
+                            info.getExtension(), info.getTailleOctets(), calculerProfondeur(path, repertoire));
+                    } else {
+                        info.marquerDoublon();
+                    }
+                    fichiers.add(info);
+                } else if (clesVues == null || compterLien(clesVues, attrs)) {
+                    enregistrerStatistiques(path, attrs, repertoire);
+                }
+            } else if (attrs.isDirectory() && !estDossierInutile(path)) {
+                dossiers.add(path); // Collecter les dossiers pour traitement ultérieur
+            }
+            return FileVisitResult.CONTINUE;
+        });
+    }
+
+    private static Set<Path> normaliser(List<Path> dossiers) {
         Set<Path> dossiersListes = new HashSet<>();
         for (Path dossier : dossiers) {
             dossiersListes.add(dossier.normalize().toAbsolutePath());
         }
-        
-        // Étape 3 : Calculer la taille des dossiers en excluant les fichiers déjà scannés
-        for (Path dossier : dossiers) {
-            FileInfo info = creerFileInfoDossier(dossier, repertoire, profondeurMax, fichiersScannes, dossiersListes);
-            fichiers.add(info);
-        }
+        return dossiersListes;
+    }
 
+    /**
+     * Étape 4 : liste le contenu des archives sans les extraire (entrées virtuelles)
+     */
+    private List<FileInfo> avecArchives(List<FileInfo> fichiers) {
+        if (inspecterArchives) {
+            ArchiveInspector inspecteur = new ArchiveInspector();
+            inspecteur.setFiltre(filtre);
+            fichiers.addAll(inspecteur.inspecter(fichiers));
+        }
         return fichiers;
     }
 
@@ -165,96 +420,456 @@ public class FileScanner {
     }
 
     /**
-     * Crée un objet FileInfo à partir d'un Path (fichier)
+     * Crée un objet FileInfo à partir d'un Path (fichier) et de ses attributs
      */
-    private FileInfo creerFileInfo(Path fichier, boolean estDossier) throws IOException {
+    private FileInfo creerFileInfo(Path fichier, BasicFileAttributes attrs) {
         String nom = fichier.getFileName().toString();
         String extension = MimeTypeDetector.extraireExtension(fichier);
         String typeMime = MimeTypeDetector.detecterTypeMime(fichier);
         String categorie = MimeTypeDetector.determinerCategorie(typeMime);
-        long taille = Files.size(fichier);
+        long taille = attrs.size();
 
-        return new FileInfo(fichier, nom, extension, typeMime, categorie, taille, estDossier);
+        return new FileInfo(fichier, nom, extension, typeMime, categorie, taille, false);
     }
 
     /**
-     * Crée un objet FileInfo à partir d'un Path (dossier)
-     * @param dossier Le dossier
-     * @param repertoireRacine Le répertoire racine du scan
-     * @param profondeurMax La profondeur maximale du scan initial
-     * @param fichiersScannes Set des fichiers déjà scannés individuellement (à exclure du calcul)
-     * @param dossiersListes Set des dossiers listés (pour exclure leurs fichiers du calcul)
+     * Crée un objet FileInfo à partir d'un Path (dossier) dont la taille est connue
      */
-    private FileInfo creerFileInfoDossier(Path dossier, Path repertoireRacine, int profondeurMax, Set<Path> fichiersScannes, Set<Path> dossiersListes) {
+    private FileInfo creerFileInfoDossier(Path dossier, long taille) {
         String nom = dossier.getFileName().toString();
         String extension = ""; // Les dossiers n'ont pas d'extension
         String typeMime = "inode/directory";
         String categorie = "Dossier";
-        long taille = calculerTailleDossier(dossier, fichiersScannes, dossiersListes);
 
         return new FileInfo(dossier, nom, extension, typeMime, categorie, taille, true);
     }
 
     /**
-     * Calcule la profondeur d'un chemin par rapport au répertoire racine
+     * Calcule la taille des dossiers listés, dans l'ordre du listage, en écrivant régulièrement un point
+     * de reprise si demandé (y compris pendant le parcours d'un dossier). Ce qui a été terminé dans un
+     * point de reprise correspondant au scan n'est pas recalculé.
+     * @param fichiersScannes Set des fichiers déjà scannés individuellement (à exclure du calcul)
+     * @param dossiersListes Set des dossiers listés (pour exclure leurs fichiers du calcul)
+     * @param clesVues Identifiants des fichiers physiques déjà comptés (null si le dédoublonnage est désactivé)
      */
-    private int calculerProfondeur(Path chemin, Path racine) {
-        int profondeur = 0;
-        Path current = chemin;
-        while (current != null && !current.equals(racine)) {
-            profondeur++;
-            current = current.getParent();
+    private List<FileInfo> calculerTaillesDossiers(Path repertoire, int profondeurMax, List<Path> dossiers,
+                                                   Set<Path> fichiersScannes, Set<Path> dossiersListes, FileKeySet clesVues) {
+        List<String> chemins = new ArrayList<>();
+        for (Path dossier : dossiers) {
+            chemins.add(repertoire.relativize(dossier).toString());
+        }
+        String parametres = repertoire.toAbsolutePath().normalize() + "|" + profondeurMax + "|" + suivreLiens
+            + "|" + dedoublonnerLiens + "|" + conserverFichiers + "|" + (filtre != null ? filtre : "");
+
+        // Reprise : le listage étant identique, l'état enregistré remplace celui du listage
+        List<Long> tailles = new ArrayList<>();
+        dossiersRepris = 0;
+        ScanCheckpoint reprise = fichierReprise != null ? lireReprise(parametres, chemins) : null;
+        if (reprise != null) {
+            tailles.addAll(reprise.getTailles());
+            statistiques = reprise.getStatistiques();
+            clesVues = reprise.getCles();
+            nombreDoublons = reprise.getNombreDoublons();
+            nombreBoucles = reprise.getNombreBoucles();
+            dossiersRepris = tailles.size();
+        }
+
+        SuiviReprise suivi = fichierReprise != null ? new SuiviReprise(parametres, chemins, tailles, clesVues, reprise) : null;
+        List<FileInfo> infos = new ArrayList<>();
+        for (int i = 0; i < dossiers.size(); i++) {
+            Path dossier = dossiers.get(i);
+            if (i >= tailles.size()) {
+                tailles.add(calculerTailleDossier(dossier, repertoire, fichiersScannes, dossiersListes, clesVues, suivi));
+                if (suivi != null) {
+                    suivi.terminerDossier();
+                }
+            }
+            infos.add(creerFileInfoDossier(dossier, tailles.get(i)));
+        }
+
+        if (fichierReprise != null) {
+            try {
+                Files.deleteIfExists(fichierReprise);
+            } catch (IOException e) {
+                System.err.println("Erreur lors de la suppression du point de reprise " + fichierReprise + ": " + e.getMessage());
+            }
+        }
+        return infos;
+    }
+
+    /**
+     * Lit le point de reprise s'il existe et correspond au scan
+     * @return Le point de reprise, ou null pour un scan complet
+     */
+    private ScanCheckpoint lireReprise(String parametres, List<String> chemins) {
+        if (!Files.exists(fichierReprise)) {
+            return null;
+        }
+        try {
+            ScanCheckpoint reprise = ScanCheckpoint.lire(fichierReprise);
+            if (reprise.correspond(parametres, chemins)) {
+                return reprise;
+            }
+            System.err.println("Point de reprise ignoré (scan différent ou arborescence modifiée) : " + fichierReprise);
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la lecture du point de reprise " + fichierReprise + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    private void ecrireReprise(ScanCheckpoint reprise) {
+        try {
+            reprise.ecrire(fichierReprise);
+        } catch (IOException e) {
+            // Le scan continue : seul le point de reprise n'est pas à jour
+            System.err.println("Erreur lors de l'écriture du point de reprise " + fichierReprise + ": " + e.getMessage());
         }
-        return profondeur;
     }
 
     /**
      * Calcule la taille totale d'un dossier en additionnant la taille de tous les fichiers qu'il contient,
      * en excluant les fichiers déjà listés individuellement dans le scan ET les fichiers des sous-dossiers listés
      * @param dossier Le dossier dont on veut calculer la taille
+     * @param repertoireRacine Le répertoire racine du scan (pour la profondeur des fichiers comptés)
      * @param fichiersScannes Set des fichiers déjà scannés individuellement (à exclure)
      * @param dossiersListes Set des dossiers listés (pour exclure leurs fichiers)
+     * @param clesVues Identifiants des fichiers physiques déjà comptés (null si le dédoublonnage est désactivé)
+     * @param suivi Le suivi des points de reprise (null sans point de reprise)
      * @return La taille totale en octets (sans compter les fichiers déjà scannés)
      */
-    private long calculerTailleDossier(Path dossier, Set<Path> fichiersScannes, Set<Path> dossiersListes) {
+    private long calculerTailleDossier(Path dossier, Path repertoireRacine, Set<Path> fichiersScannes,
+                                       Set<Path> dossiersListes, FileKeySet clesVues, SuiviReprise suivi) {
+        long[] taille = {suivi != null ? suivi.tailleReprise : 0};
         try {
-            Path dossierNormalise = dossier.normalize().toAbsolutePath();
-            
-            return Files.walk(dossier)
-                .filter(Files::isRegularFile)
-                .filter(path -> !estFichierInutile(path))
-                .filter(path -> {
-                    // Normaliser le chemin pour garantir une comparaison correcte
-                    Path pathNormalise = path.normalize().toAbsolutePath();
-                    
-                    // Exclure les fichiers déjà scannés individuellement
-                    if (fichiersScannes.contains(pathNormalise)) {
-                        return false;
+            parcourir(dossier, Integer.MAX_VALUE, false, new VisiteurFichier() {
+                @Override
+                public FileVisitResult visiter(Path path, BasicFileAttributes attrs) {
+                    if (attrs.isDirectory()) {
+                        // Les sous-dossiers listés ont leur propre taille : inutile de les parcourir
+                        // (chemin normalisé pour garantir une comparaison correcte)
+                        // Un lien vers un dossier (non suivi) n'a rien à compter
+                        return dossiersListes.contains(path.normalize().toAbsolutePath())
+                            ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                    }
+                    if (suivi != null && suivi.dejaTraite(path)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    // Exclure les fichiers refusés par le filtre (avant toute autre opération), les fichiers déjà
+                    // scannés individuellement et les liens vers un fichier déjà compté
+                    if (attrs.isRegularFile() && !estFichierInutile(path)
+                            && (filtre == null || filtre.accepte(path, attrs))
+                            && !fichiersScannes.contains(path.normalize().toAbsolutePath())
+                            && (clesVues == null || compterLien(clesVues, attrs))) {
+                        taille[0] += attrs.size();
+                        enregistrerStatistiques(path, attrs, repertoireRacine);
                     }
-                    
-                    // Exclure les fichiers qui sont dans des sous-dossiers listés (mais pas le dossier lui-même)
-                    Path parent = pathNormalise.getParent();
-                    while (parent != null && !parent.equals(dossierNormalise)) {
-                        if (dossiersListes.contains(parent.normalize().toAbsolutePath())) {
-                            return false; // Ce fichier est dans un sous-dossier listé
-                        }
-                        parent = parent.getParent();
+                    if (suivi != null) {
+                        suivi.ecrireSiEcheance(taille[0]);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public boolean entrer(Path sousDossier) {
+                    return suivi == null || suivi.entrer(sousDossier);
+                }
+
+                @Override
+                public void terminer(Path sousDossier) {
+                    if (suivi != null) {
+                        suivi.sortir();
+                        suivi.ecrireSiEcheance(taille[0]);
                     }
-                    
-                    return true;
-                })
-                .mapToLong(path -> {
+                }
+
+                @Override
+                public boolean echec(Path chemin) {
+                    return suivi != null && suivi.dejaTraite(chemin);
+                }
+            });
+        } catch (IOException e) {
+            // En cas d'erreur, retourner ce qui a pu être calculé
+            System.err.println("Erreur lors du calcul de la taille de " + dossier + ": " + e.getMessage());
+        }
+        return taille[0];
+    }
+
+    /**
+     * Compte un fichier sans FileInfo dans les statistiques (catégorie déduite de l'extension seule)
+     */
+    private void enregistrerStatistiques(Path fichier, BasicFileAttributes attrs, Path repertoireRacine) {
+        statistiques.enregistrer(MimeTypeDetector.determinerCategorieParExtension(fichier.getFileName().toString()),
+            MimeTypeDetector.extraireExtension(fichier), attrs.size(), calculerProfondeur(fichier, repertoireRacine));
+    }
+
+    /**
+     * Calcule la profondeur d'un chemin par rapport au répertoire racine
+     */
+    private int calculerProfondeur(Path chemin, Path racine) {
+        return racine.relativize(chemin).getNameCount();
+    }
+
+    /**
+     * Enregistre le fichier physique désigné par les attributs
+     * @return true si c'est le premier lien rencontré vers ce fichier (à compter)
+     */
+    private boolean compterLien(FileKeySet clesVues, BasicFileAttributes attrs) {
+        if (clesVues.ajouter(attrs)) {
+            return true;
+        }
+        nombreDoublons++;
+        return false;
+    }
+
+    /**
+     * Parcourt une arborescence (hors racine, sauf si demandé) en fournissant les attributs de chaque élément.
+     * Les liens symboliques vers des fichiers sont résolus ; les liens vers des dossiers ne sont
+     * parcourus qu'en mode suivi des liens, avec détection des boucles.
+     * Avec un limiteur, chaque lecture du parcours (attributs d'un élément, suite d'un dossier) est autorisée
+     * avant d'être faite : la latence mesurée est le temps passé dans le parcours entre deux rappels.
+     */
+    private void parcourir(Path racine, int profondeurMax, boolean inclureRacine, VisiteurFichier visiteur) throws IOException {
+        Set<FileVisitOption> options = suivreLiens
+            ? EnumSet.of(FileVisitOption.FOLLOW_LINKS) : EnumSet.noneOf(FileVisitOption.class);
+        long[] finRappel = {0};
+        if (limiteur != null) {
+            limiteur.acquerir();
+            finRappel[0] = System.nanoTime();
+        }
+
+        Files.walkFileTree(racine, options, profondeurMax, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dossier, BasicFileAttributes attrs) throws IOException {
+                mesurer();
+                if (!inclureRacine && dossier.equals(racine)) {
+                    return autoriser(FileVisitResult.CONTINUE);
+                }
+                FileVisitResult resultat = visiteur.visiter(dossier, attrs);
+                if (resultat == FileVisitResult.CONTINUE && !visiteur.entrer(dossier)) {
+                    resultat = FileVisitResult.SKIP_SUBTREE;
+                }
+                return autoriser(resultat);
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path fichier, BasicFileAttributes attrs) throws IOException {
+                mesurer();
+                if (!inclureRacine && fichier.equals(racine)) {
+                    return autoriser(FileVisitResult.CONTINUE);
+                }
+                if (attrs.isSymbolicLink()) {
+                    // Lien non suivi : utiliser les attributs de la cible (un lien vers un dossier est visité
+                    // avec les attributs du dossier, mais n'est ni parcouru, ni entré, ni terminé)
                     try {
-                        return Files.size(path);
+                        attrs = limiteur != null
+                            ? limiteur.executer(() -> Files.readAttributes(fichier, BasicFileAttributes.class))
+                            : Files.readAttributes(fichier, BasicFileAttributes.class);
                     } catch (IOException e) {
-                        // Ignorer les fichiers qui ne peuvent pas être lus
-                        return 0L;
+                        return autoriser(FileVisitResult.CONTINUE); // Lien cassé
                     }
-                })
-                .sum();
-        } catch (IOException e) {
-            // En cas d'erreur, retourner 0
-            return 0L;
+                }
+                visiteur.visiter(fichier, attrs);
+                return autoriser(FileVisitResult.CONTINUE);
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dossier, IOException exc) throws IOException {
+                mesurer();
+                FileVisitResult resultat = super.postVisitDirectory(dossier, exc);
+                if (inclureRacine || !dossier.equals(racine)) {
+                    visiteur.terminer(dossier);
+                }
+                return autoriser(resultat);
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path fichier, IOException exc) {
+                mesurer();
+                if (visiteur.echec(fichier)) {
+                    return autoriser(FileVisitResult.CONTINUE); // Échec déjà compté avant une reprise
+                }
+                if (exc instanceof FileSystemLoopException) {
+                    nombreBoucles++;
+                    System.err.println("Boucle de liens symboliques ignorée : " + fichier);
+                } else {
+                    // Ignorer les fichiers/dossiers qui ne peuvent pas être lus
+                    System.err.println("Erreur lors de la lecture de " + fichier + ": " + exc.getMessage());
+                }
+                return autoriser(FileVisitResult.CONTINUE);
+            }
+
+            /**
+             * Enregistre la latence de la lecture qui a précédé le rappel
+             */
+            private void mesurer() {
+                if (limiteur != null) {
+                    limiteur.mesurer(System.nanoTime() - finRappel[0]);
+                }
+            }
+
+            /**
+             * Attend l'autorisation de la lecture suivante du parcours
+             */
+            private FileVisitResult autoriser(FileVisitResult resultat) {
+                if (limiteur != null && resultat != FileVisitResult.TERMINATE) {
+                    limiteur.acquerir();
+                    finRappel[0] = System.nanoTime();
+                }
+                return resultat;
+            }
+        });
+    }
+
+    /**
+     * Traitement appliqué à chaque élément d'un parcours
+     */
+    private interface VisiteurFichier {
+        FileVisitResult visiter(Path chemin, BasicFileAttributes attrs) throws IOException;
+
+        /**
+         * Appelé avant le parcours d'un dossier visité (hors racine) dont la visite a retourné CONTINUE ;
+         * chaque dossier entré est terminé par {@link #terminer(Path)}
+         * @return false pour ne pas parcourir le dossier
+         */
+        default boolean entrer(Path dossier) {
+            return true;
+        }
+
+        /**
+         * Appelé à la fin du parcours d'un dossier entré (hors racine)
+         */
+        default void terminer(Path dossier) {
+        }
+
+        /**
+         * Appelé pour un élément illisible
+         * @return true pour ignorer l'échec (élément déjà traité)
+         */
+        default boolean echec(Path chemin) {
+            return false;
+        }
+    }
+
+    /**
+     * Suivi des points de reprise pendant le calcul de la taille des dossiers. Le parcours du dossier en
+     * cours est décrit par la pile de ses sous-dossiers ouverts : à tout moment entre deux éléments,
+     * la taille partielle, les statistiques et les fichiers physiques comptés correspondent exactement
+     * aux sous-dossiers terminés et aux éléments traités des sous-dossiers ouverts, ce qui permet
+     * d'écrire un point de reprise sans attendre la fin du dossier.
+     */
+    private final class SuiviReprise {
+        private final String parametres;
+        private final List<String> chemins;
+        private final List<Long> tailles;
+        private final FileKeySet clesVues;
+        private final long intervalle = intervalleReprise.toNanos();
+        private long prochainPoint = System.nanoTime() + intervalle;
+
+        // Reprise du dossier en cours dans le point de reprise lu
+        private long tailleReprise;
+        private Set<String> sousDossiersRepris = Collections.emptySet();
+        private Set<String> elementsRepris = Collections.emptySet();
+
+        private final Deque<DossierOuvert> ouverts = new ArrayDeque<>();
+
+        SuiviReprise(String parametres, List<String> chemins, List<Long> tailles, FileKeySet clesVues,
+                     ScanCheckpoint reprise) {
+            this.parametres = parametres;
+            this.chemins = chemins;
+            this.tailles = tailles;
+            this.clesVues = clesVues;
+            if (reprise != null) {
+                tailleReprise = reprise.getTailleEnCours();
+                sousDossiersRepris = new HashSet<>(reprise.getSousDossiersTermines());
+                elementsRepris = new HashSet<>(reprise.getElementsTraites());
+            }
+            ouverts.push(new DossierOuvert(""));
+        }
+
+        /**
+         * Entre dans un sous-dossier du parcours
+         * @return false si le sous-dossier a été terminé avant la reprise (à ne pas parcourir)
+         */
+        boolean entrer(Path dossier) {
+            String relatif = ouverts.peek().relatif(dossier);
+            if (sousDossiersRepris.contains(relatif)) {
+                ouverts.peek().sousDossiersTermines.add(relatif);
+                return false;
+            }
+            ouverts.push(new DossierOuvert(relatif));
+            return true;
+        }
+
+        /**
+         * Sort du sous-dossier courant, terminé
+         */
+        void sortir() {
+            DossierOuvert termine = ouverts.pop();
+            ouverts.peek().sousDossiersTermines.add(termine.relatif);
+        }
+
+        /**
+         * Enregistre un élément (fichier ou élément illisible) du sous-dossier courant
+         * @return true si l'élément avait été traité avant la reprise (à ignorer)
+         */
+        boolean dejaTraite(Path element) {
+            String relatif = ouverts.peek().relatif(element);
+            ouverts.peek().elementsTraites.add(relatif);
+            return elementsRepris.contains(relatif);
+        }
+
+        /**
+         * Écrit un point de reprise si l'intervalle est écoulé
+         * @param tailleEnCours La taille partielle du dossier en cours
+         */
+        void ecrireSiEcheance(long tailleEnCours) {
+            if (System.nanoTime() < prochainPoint) {
+                return;
+            }
+            long debut = System.nanoTime();
+            List<String> sousDossiersTermines = new ArrayList<>();
+            List<String> elementsTraites = new ArrayList<>();
+            for (DossierOuvert ouvert : ouverts) {
+                sousDossiersTermines.addAll(ouvert.sousDossiersTermines);
+                elementsTraites.addAll(ouvert.elementsTraites);
+            }
+            int i = tailles.size();
+            ecrireReprise(new ScanCheckpoint(parametres, chemins.subList(0, i), tailles, chemins.subList(i, chemins.size()),
+                tailleEnCours, sousDossiersTermines, elementsTraites, statistiques, clesVues, nombreDoublons, nombreBoucles));
+            // Espacer les écritures pour que leur coût reste inférieur à 2 % du temps de calcul
+            long fin = System.nanoTime();
+            prochainPoint = fin + Math.max(intervalle, 50 * (fin - debut));
+        }
+
+        /**
+         * Termine le dossier en cours (sa taille a été ajoutée aux tailles)
+         */
+        void terminerDossier() {
+            tailleReprise = 0;
+            sousDossiersRepris = Collections.emptySet();
+            elementsRepris = Collections.emptySet();
+            ouverts.clear();
+            ouverts.push(new DossierOuvert(""));
+        }
+    }
+
+    /**
+     * Sous-dossier en cours de parcours, avec ses sous-dossiers terminés et ses éléments traités
+     * (chemins relatifs au dossier dont la taille est calculée, séparés par "/")
+     */
+    private static final class DossierOuvert {
+        private final String relatif;
+        private final List<String> sousDossiersTermines = new ArrayList<>();
+        private final List<String> elementsTraites = new ArrayList<>();
+
+        DossierOuvert(String relatif) {
+            this.relatif = relatif;
+        }
+
+        String relatif(Path enfant) {
+            String nom = enfant.getFileName().toString();
+            return relatif.isEmpty() ? nom : relatif + "/" + nom;
         }
     }
 }
@@ -0,0 +1,222 @@
+package com.filelist;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Classe limitant le débit des opérations d'entrée/sortie sur les métadonnées (lecture d'attributs,
+ * lecture de dossier) pour ne pas saturer un stockage partagé.
+ *
+ * Le débit est limité par un seau à jetons (rafales de 100 ms au plus). Il s'adapte à la latence
+ * observée de chaque opération : il est divisé par deux lorsqu'une opération dépasse la latence
+ * maximale (au plus une fois par période d'observation, le temps de quelques opérations au débit
+ * réduit), sans descendre sous 1 % de la limite, puis remonte progressivement (5 % de la limite
+ * par seconde) tant que les opérations restent rapides.
+ * La latence est mesurée en temps réel : un système de fichiers simulé lent déclenche le ralentissement.
+ */
+public class IoThrottle {
+    private static final double FACTEUR_RALENTISSEMENT = 0.5;
+    private static final double REMONTEE_PAR_SECONDE = 0.05;
+    private static final long PERIODE_MIN = 100_000_000L; // 100 ms
+    /** Nombre d'opérations au débit réduit observées avant une nouvelle réduction */
+    private static final int OPERATIONS_PAR_PERIODE = 10;
+
+    private final double debitMax;
+    private final double debitMin;
+    private final long latenceMax;
+    private final double capacite;
+    private final Horloge horloge;
+    private final Attente attente;
+
+    private double debit;
+    private double jetons;
+    private long dernierRemplissage;
+    private long dernierAjustement;
+    private long dernierRalentissement;
+
+    // Mesures
+    private boolean demarre;
+    private long debut;
+    private long operations;
+    private long operationsLentes;
+    private long ralentissements;
+    private long latenceTotale;
+    private long attenteTotale;
+
+    /**
+     * @param operationsParSeconde Le débit maximal d'opérations
+     * @param latenceMax La latence au-delà de laquelle le débit est réduit
+     */
+    public IoThrottle(double operationsParSeconde, Duration latenceMax) {
+        this(operationsParSeconde, latenceMax, System::nanoTime,
+            nanos -> Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000)));
+    }
+
+    /**
+     * @param horloge La source du temps (remplaçable dans les tests)
+     * @param attente L'attente d'une durée (remplaçable dans les tests)
+     */
+    IoThrottle(double operationsParSeconde, Duration latenceMax, Horloge horloge, Attente attente) {
+        if (operationsParSeconde <= 0) {
+            throw new IllegalArgumentException("Le débit maximal doit être positif");
+        }
+        this.debitMax = operationsParSeconde;
+        this.debitMin = Math.min(operationsParSeconde, Math.max(1, operationsParSeconde / 100));
+        this.latenceMax = latenceMax.toNanos();
+        this.capacite = Math.max(1, operationsParSeconde / 10);
+        this.debit = operationsParSeconde;
+        this.jetons = capacite;
+        this.horloge = horloge;
+        this.attente = attente;
+    }
+
+    /**
+     * Attend qu'une opération soit autorisée. Le jeton est réservé immédiatement (éventuellement
+     * à découvert), l'attente se faisant hors verrou.
+     */
+    public void acquerir() {
+        long duree;
+        synchronized (this) {
+            long maintenant = horloge.nanoTime();
+            if (!demarre) {
+                demarre = true;
+                debut = maintenant;
+                dernierAjustement = maintenant;
+            } else {
+                jetons = Math.min(capacite, jetons + (maintenant - dernierRemplissage) * debit / 1e9);
+            }
+            dernierRemplissage = maintenant;
+            jetons -= 1;
+            duree = jetons < 0 ? (long) (-jetons / debit * 1e9) : 0;
+            attenteTotale += duree;
+        }
+        if (duree > 0) {
+            try {
+                attente.attendre(duree);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Enregistre la latence d'une opération et ajuste le débit
+     */
+    public synchronized void mesurer(long latence) {
+        long maintenant = horloge.nanoTime();
+        operations++;
+        latenceTotale += latence;
+        if (latence > latenceMax) {
+            operationsLentes++;
+            // Une seule réduction par période : les opérations lentes d'une même rafale ont la même cause
+            long periode = Math.max(Math.max(PERIODE_MIN, 2 * latenceMax), (long) (OPERATIONS_PAR_PERIODE / debit * 1e9));
+            if (ralentissements == 0 || maintenant - dernierRalentissement >= periode) {
+                debit = Math.max(debitMin, debit * FACTEUR_RALENTISSEMENT);
+                dernierRalentissement = maintenant;
+                ralentissements++;
+            }
+        } else if (debit < debitMax) {
+            debit = Math.min(debitMax, debit + debitMax * REMONTEE_PAR_SECONDE * (maintenant - dernierAjustement) / 1e9);
+        }
+        dernierAjustement = maintenant;
+    }
+
+    /**
+     * Exécute une opération après avoir attendu son autorisation, en mesurant sa latence
+     */
+    public <T> T executer(OperationIo<T> operation) throws IOException {
+        acquerir();
+        long depart = horloge.nanoTime();
+        try {
+            return operation.executer();
+        } finally {
+            mesurer(horloge.nanoTime() - depart);
+        }
+    }
+
+    /**
+     * @return Le nombre d'opérations mesurées
+     */
+    public synchronized long getOperations() {
+        return operations;
+    }
+
+    /**
+     * @return Le débit obtenu depuis la première opération (opérations par seconde)
+     */
+    public synchronized double getDebitObtenu() {
+        double secondes = (horloge.nanoTime() - debut) / 1e9;
+        return !demarre || secondes <= 0 ? 0 : operations / secondes;
+    }
+
+    /**
+     * @return Le débit autorisé actuellement (opérations par seconde)
+     */
+    public synchronized double getDebitCourant() {
+        return debit;
+    }
+
+    public double getDebitMax() {
+        return debitMax;
+    }
+
+    public Duration getLatenceMax() {
+        return Duration.ofNanos(latenceMax);
+    }
+
+    /**
+     * @return Le nombre de réductions du débit dues à la latence
+     */
+    public synchronized long getRalentissements() {
+        return ralentissements;
+    }
+
+    /**
+     * @return Le nombre d'opérations plus lentes que la latence maximale
+     */
+    public synchronized long getOperationsLentes() {
+        return operationsLentes;
+    }
+
+    public synchronized Duration getLatenceMoyenne() {
+        return Duration.ofNanos(operations == 0 ? 0 : latenceTotale / operations);
+    }
+
+    /**
+     * @return Le temps total passé à attendre l'autorisation des opérations
+     */
+    public synchronized Duration getAttenteTotale() {
+        return Duration.ofNanos(attenteTotale);
+    }
+
+    /**
+     * @return Le résumé des mesures
+     */
+    public synchronized String resume() {
+        return String.format("E/S limitées : %d lecture(s), %.0f/s obtenues (limite %.0f/s, débit final %.0f/s), "
+                + "latence moyenne %.2f ms, %d lecture(s) lente(s), %d ralentissement(s), attente %.1f s",
+            operations, getDebitObtenu(), debitMax, debit, getLatenceMoyenne().toNanos() / 1_000_000.0,
+            operationsLentes, ralentissements, attenteTotale / 1e9);
+    }
+
+    /**
+     * Source du temps, en nanosecondes
+     */
+    interface Horloge {
+        long nanoTime();
+    }
+
+    /**
+     * Attente d'une durée, en nanosecondes
+     */
+    interface Attente {
+        void attendre(long nanos) throws InterruptedException;
+    }
+
+    /**
+     * Opération d'entrée/sortie limitée
+     */
+    public interface OperationIo<T> {
+        T executer() throws IOException;
+    }
+}
@@ -2,13 +2,22 @@ package com.filelist;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Classe pour détecter le type MIME et catégoriser les fichiers
  */
 public class MimeTypeDetector {
+    /** Type MIME d'un fichier dont l'extension n'est pas connue */
+    public static final String TYPE_INCONNU = "application/octet-stream";
+    /** Catégories des fichiers (hors dossiers) */
+    public static final List<String> CATEGORIES = Collections.unmodifiableList(Arrays.asList(
+        "Document", "Code", "Image", "Vidéo", "Audio", "Archive", "Autre"));
+
     private static final Map<String, String> extensionToMime = new HashMap<>();
     private static final Map<String, String> mimeToCategory = new HashMap<>();
 
@@ -58,6 +67,7 @@ public class MimeTypeDetector {
         extensionToMime.put("7z", "application/x-7z-compressed");
         extensionToMime.put("tar", "application/x-tar");
         extensionToMime.put("gz", "application/gzip");
+        extensionToMime.put("jar", "application/java-archive");
         
         // Code
         extensionToMime.put("java", "text/x-java-source");
@@ -80,6 +90,7 @@ public class MimeTypeDetector {
         mimeToCategory.put("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "Document");
         mimeToCategory.put("application/vnd.ms-powerpoint", "Document");
         mimeToCategory.put("application/vnd.openxmlformats-officedocument.presentationml.presentation", "Document");
+        mimeToCategory.put("application/java-archive", "Archive");
     }
 
     /**
@@ -97,14 +108,31 @@ public class MimeTypeDetector {
         }
 
         // Fallback : utiliser le mapping par extension
-        String nomFichier = fichier.getFileName().toString().toLowerCase();
+        return detecterTypeMimeParExtension(fichier.getFileName().toString());
+    }
+
+    /**
+     * Détecte le type MIME uniquement à partir de l'extension du nom
+     * (sans accès au contenu, utilisable pour des entrées virtuelles)
+     */
+    public static String detecterTypeMimeParExtension(String nomFichier) {
+        nomFichier = nomFichier.toLowerCase();
         int dernierPoint = nomFichier.lastIndexOf('.');
         if (dernierPoint > 0 && dernierPoint < nomFichier.length() - 1) {
             String extension = nomFichier.substring(dernierPoint + 1);
-            return extensionToMime.getOrDefault(extension, "application/octet-stream");
+            return extensionToMime.getOrDefault(extension, TYPE_INCONNU);
         }
 
-        return "application/octet-stream";
+        return TYPE_INCONNU;
+    }
+
+    /**
+     * Détermine la catégorie d'un fichier à partir de l'extension de son nom seule : règle commune
+     * au filtre par catégorie et aux statistiques, indépendante de la détection par le contenu
+     * @param nomFichier Le nom du fichier (sans dossier)
+     */
+    public static String determinerCategorieParExtension(String nomFichier) {
+        return determinerCategorie(detecterTypeMimeParExtension(nomFichier));
     }
 
     /**
@@ -147,6 +175,18 @@ public class MimeTypeDetector {
         return "Autre";
     }
 
+    /**
+     * Indique si le contenu est du texte dont les lignes peuvent être comptées
+     * (catégories Code et Document de type text/)
+     */
+    public static boolean estTexte(String typeMime) {
+        if (typeMime == null || !typeMime.startsWith("text/")) {
+            return false;
+        }
+        String categorie = determinerCategorie(typeMime);
+        return categorie.equals("Code") || categorie.equals("Document");
+    }
+
     /**
      * Extrait l'extension d'un fichier
      */
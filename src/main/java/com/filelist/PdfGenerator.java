@@ -1,18 +1,28 @@
 package com.filelist;
 
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDFormContentStream;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Classe pour générer un PDF contenant la liste des fichiers
@@ -24,35 +34,127 @@ public class PdfGenerator {
     private static final float FONT_SIZE_BODY = 8;
     private static final float ROW_HEIGHT = 15;
     private static final float HEADER_HEIGHT = 20;
+    private static final float STATISTICS_HEIGHT = 65;
+    private static final String[] EN_TETES = {"Nom", "Extension", "Type MIME", "Catégorie", "Taille"};
+    private static final String[] EN_TETES_LIGNES = {"Nom", "Extension", "Type MIME", "Catégorie", "Taille", "Lignes"};
+
+    private static final float SUMMARY_ROW_HEIGHT = 12;
+    private static final int EXTENSIONS_MAX = 20;
+
+    private boolean modeOptimise;
+    private boolean avecLignes;
+    private ScanFilter filtre;
 
     /**
      * Génère un PDF avec la liste des fichiers
+     * (les statistiques du résumé sont calculées à partir de la liste)
      */
     public void genererPdf(List<FileInfo> fichiers, Path repertoire, Path fichierSortie) throws IOException {
+        genererPdf(fichiers, repertoire, fichierSortie, ScanStatistics.depuis(fichiers, repertoire));
+    }
+
+    /**
+     * Génère un PDF avec la liste des fichiers, suivie d'un résumé par catégorie, extension et profondeur
+     * @param statistiques Les statistiques accumulées pendant le scan
+     */
+    public void genererPdf(List<FileInfo> fichiers, Path repertoire, Path fichierSortie,
+                           ScanStatistics statistiques) throws IOException {
         // Trier : dossiers en premier, puis fichiers, tous triés par nom
+        // (les entrées d'une archive suivent directement leur archive)
         fichiers.sort(Comparator
             .comparing((FileInfo f) -> !f.estDossier()) // Dossiers en premier (false avant true)
+            .thenComparing(f -> f.estVirtuel() ? f.getArchiveParente().getFileName().toString() : f.getNom())
+            .thenComparing(f -> f.estVirtuel() ? f.getArchiveParente().toString() : f.getCheminComplet().toString())
+            .thenComparing(FileInfo::estVirtuel)
             .thenComparing(FileInfo::getNom));
+        // Colonne des lignes lorsque le contenu des fichiers texte a été compté
+        avecLignes = fichiers.stream().anyMatch(f -> f.getLignes() >= 0);
+        List<String[]> lignesTableau = lignesTableau(fichiers);
 
         try (PDDocument document = new PDDocument()) {
-            PDPage page = new PDPage(PDRectangle.A4);
-            document.addPage(page);
+            GabaritsTableau gabarits = modeOptimise
+                ? new GabaritsTableau(document, enTetes(), largeursColonnes(PDRectangle.A4.getWidth() - 2 * MARGIN))
+                : null;
+            PDPage page = ajouterPage(document, gabarits);
 
-            try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+            PDPageContentStream contentStream = new PDPageContentStream(document, page);
+            try {
                 float yPosition = PDRectangle.A4.getHeight() - MARGIN;
-                
+
                 // En-tête
                 yPosition = dessinerEnTete(contentStream, yPosition, repertoire);
-                
-                // Tableau
-                yPosition = dessinerTableau(contentStream, yPosition, fichiers, page);
-                
-                // Statistiques
-                dessinerStatistiques(contentStream, yPosition, fichiers);
+
+                // Tableau, réparti sur autant de pages que nécessaire
+                int debut = 0;
+                while (true) {
+                    int fin = Math.min(lignesTableau.size(), debut + lignesParPage(yPosition));
+                    List<String[]> lignes = lignesTableau.subList(debut, fin);
+                    yPosition = modeOptimise
+                        ? dessinerTableauOptimise(contentStream, yPosition, lignes, gabarits)
+                        : dessinerTableau(contentStream, yPosition, lignes, page);
+                    debut = fin;
+                    if (debut >= lignesTableau.size()) {
+                        break;
+                    }
+                    contentStream.close();
+                    page = ajouterPage(document, gabarits);
+                    contentStream = new PDPageContentStream(document, page);
+                    yPosition = PDRectangle.A4.getHeight() - MARGIN;
+                }
+
+                // Statistiques (sur une nouvelle page si la place manque)
+                if (yPosition - STATISTICS_HEIGHT < MARGIN) {
+                    contentStream.close();
+                    page = ajouterPage(document, gabarits);
+                    contentStream = new PDPageContentStream(document, page);
+                    yPosition = PDRectangle.A4.getHeight() - MARGIN;
+                }
+                dessinerStatistiques(contentStream, yPosition, fichiers, statistiques);
+            } finally {
+                contentStream.close();
             }
 
-            document.save(fichierSortie.toFile());
+            // Résumé (sur des pages séparées)
+            dessinerResume(document, statistiques);
+
+            document.save(fichierSortie.toFile(), CompressParameters.DEFAULT_COMPRESSION);
+        }
+    }
+
+    /**
+     * Active le mode optimisé : grille et en-tête du tableau dessinés une seule fois dans un
+     * gabarit (Form XObject) réutilisé sur chaque page, et une seule instruction de texte par ligne
+     */
+    public void setModeOptimise(boolean modeOptimise) {
+        this.modeOptimise = modeOptimise;
+    }
+
+    /**
+     * Indique le filtre appliqué au scan, rappelé dans l'en-tête du document
+     * @param filtre Le filtre (null si tous les fichiers sont listés)
+     */
+    public void setFiltre(ScanFilter filtre) {
+        this.filtre = filtre;
+    }
+
+    /**
+     * Ajoute une page au document (en mode optimisé, toutes les pages partagent les mêmes ressources)
+     */
+    private PDPage ajouterPage(PDDocument document, GabaritsTableau gabarits) {
+        PDPage page = new PDPage(PDRectangle.A4);
+        if (gabarits != null) {
+            page.setResources(gabarits.ressources);
         }
+        document.addPage(page);
+        return page;
+    }
+
+    /**
+     * Nombre de lignes du tableau tenant sur une page à partir de la position donnée
+     */
+    private int lignesParPage(float yPosition) {
+        float premiereLigne = yPosition - HEADER_HEIGHT - 5;
+        return Math.max(1, (int) Math.floor((premiereLigne - (MARGIN + 50)) / ROW_HEIGHT) + 1);
     }
 
     /**
@@ -92,6 +194,19 @@ public class PdfGenerator {
         contentStream.newLineAtOffset(MARGIN, yPosition);
         contentStream.showText("Répertoire : " + cheminRepertoire);
         contentStream.endText();
+
+        if (filtre != null) {
+            yPosition -= 15;
+            String description = filtre.toString();
+            if (description.length() > 100) {
+                description = description.substring(0, 97) + "...";
+            }
+            contentStream.beginText();
+            contentStream.setFont(fontHeader, FONT_SIZE_HEADER);
+            contentStream.newLineAtOffset(MARGIN, yPosition);
+            contentStream.showText("Filtre : " + description);
+            contentStream.endText();
+        }
         yPosition -= 30;
 
         return yPosition;
@@ -99,18 +214,14 @@ public class PdfGenerator {
 
     /**
      * Dessine le tableau avec les fichiers
+     * @param lignes Les cellules de chaque ligne
      */
     private float dessinerTableau(PDPageContentStream contentStream, float yPosition, 
-                                  List<FileInfo> fichiers, PDPage page) throws IOException {
+                                  List<String[]> lignes, PDPage page) throws IOException {
         float pageWidth = page.getMediaBox().getWidth();
         float tableWidth = pageWidth - 2 * MARGIN;
         
-        // Largeurs des colonnes
-        float colNom = tableWidth * 0.35f;
-        float colExtension = tableWidth * 0.12f;
-        float colMime = tableWidth * 0.25f;
-        float colCategorie = tableWidth * 0.13f;
-        float colTaille = tableWidth * 0.15f;
+        float[] colWidths = largeursColonnes(tableWidth);
 
         float xStart = MARGIN;
         float yStart = yPosition;
@@ -128,24 +239,7 @@ public class PdfGenerator {
         currentY -= HEADER_HEIGHT;
 
         // Colonnes d'en-tête
-        String[] headers = {"Nom", "Extension", "Type MIME", "Catégorie", "Taille"};
-        float[] colWidths = {colNom, colExtension, colMime, colCategorie, colTaille};
-        float xPos = xStart + 5;
-
-        contentStream.beginText();
-        contentStream.setFont(fontHeader, FONT_SIZE_BODY);
-        contentStream.newLineAtOffset(xPos, currentY + HEADER_HEIGHT - 5);
-        for (int i = 0; i < headers.length; i++) {
-            String header = headers[i];
-            if (header.length() > 15) {
-                header = header.substring(0, 12) + "...";
-            }
-            contentStream.showText(header);
-            if (i < headers.length - 1) {
-                contentStream.newLineAtOffset(colWidths[i], 0);
-            }
-        }
-        contentStream.endText();
+        dessinerEntetesColonnes(contentStream, fontHeader, xStart + 5, currentY + HEADER_HEIGHT - 5, colWidths, enTetes());
 
         // Ligne de séparation
         contentStream.setLineWidth(1f);
@@ -156,47 +250,16 @@ public class PdfGenerator {
         currentY -= 5;
 
         // Lignes de données
-        for (FileInfo fichier : fichiers) {
-            // Vérifier si on a besoin d'une nouvelle page
-            if (currentY < MARGIN + 50) {
-                // Nouvelle page (simplifié - dans une vraie implémentation, on créerait une nouvelle page)
-                break;
-            }
-
+        for (String[] cellules : lignes) {
             contentStream.beginText();
             contentStream.setFont(fontBody, FONT_SIZE_BODY);
             contentStream.newLineAtOffset(xStart + 5, currentY);
-            
-            // Nom (tronqué si nécessaire)
-            String nom = fichier.getNom();
-            if (fichier.estDossier()) {
-                nom = "[D] " + nom; // Préfixe pour les dossiers
-            }
-            if (nom.length() > 40) {
-                nom = nom.substring(0, 37) + "...";
-            }
-            contentStream.showText(nom);
-            contentStream.newLineAtOffset(colNom, 0);
-
-            // Extension
-            contentStream.showText(fichier.getExtension().isEmpty() ? "-" : fichier.getExtension());
-            contentStream.newLineAtOffset(colExtension, 0);
-
-            // Type MIME (tronqué si nécessaire)
-            String mime = fichier.getTypeMime();
-            if (mime.length() > 30) {
-                mime = mime.substring(0, 27) + "...";
+            for (int i = 0; i < cellules.length; i++) {
+                contentStream.showText(cellules[i]);
+                if (i < cellules.length - 1) {
+                    contentStream.newLineAtOffset(colWidths[i], 0);
+                }
             }
-            contentStream.showText(mime);
-            contentStream.newLineAtOffset(colMime, 0);
-
-            // Catégorie
-            contentStream.showText(fichier.getCategorie());
-            contentStream.newLineAtOffset(colCategorie, 0);
-
-            // Taille
-            contentStream.showText(fichier.getTailleLisible());
-            
             contentStream.endText();
 
             // Ligne de séparation
@@ -219,18 +282,151 @@ public class PdfGenerator {
         return currentY;
     }
 
+    /**
+     * Dessine le tableau en mode optimisé : le gabarit (grille et en-tête) est réutilisé et le texte
+     * de la page tient dans un seul bloc, chaque ligne passant à la suivante (T*) puis affichant
+     * toutes ses cellules en une instruction (TJ)
+     */
+    private float dessinerTableauOptimise(PDPageContentStream contentStream, float yPosition,
+                                          List<String[]> lignes, GabaritsTableau gabarits) throws IOException {
+        float premiereLigne = yPosition - HEADER_HEIGHT - 5;
+        contentStream.drawForm(gabarits.gabarit(yPosition, lignes.size()));
+
+        contentStream.beginText();
+        contentStream.setFont(gabarits.fontCorps, FONT_SIZE_BODY);
+        contentStream.setLeading(ROW_HEIGHT);
+        contentStream.newLineAtOffset(MARGIN + 5, premiereLigne + ROW_HEIGHT);
+        Object[] elements = new Object[2 * gabarits.enTetes.length - 1];
+        for (String[] cellules : lignes) {
+            for (int i = 0; i < cellules.length; i++) {
+                elements[2 * i] = cellules[i];
+                if (i < cellules.length - 1) {
+                    // Décalage jusqu'à la colonne suivante, en millièmes de la taille de police (négatif = vers la droite)
+                    float largeurTexte = gabarits.largeurTexte(cellules[i]);
+                    elements[2 * i + 1] = (float) -Math.round(gabarits.largeurs[i] * 1000 / FONT_SIZE_BODY - largeurTexte);
+                }
+            }
+            contentStream.newLine();
+            contentStream.showTextWithPositioning(elements);
+        }
+        contentStream.endText();
+
+        return premiereLigne - lignes.size() * ROW_HEIGHT;
+    }
+
+    /**
+     * @return L'en-tête de colonne, tronqué si nécessaire
+     */
+    private static String libelleEnTete(String enTete) {
+        return enTete.length() > 15 ? enTete.substring(0, 12) + "..." : enTete;
+    }
+
+    /**
+     * Lignes du tableau : une par entrée, plus une ligne après les entrées d'une archive
+     * dont toutes les entrées n'ont pas été listées
+     */
+    private List<String[]> lignesTableau(List<FileInfo> fichiers) {
+        List<String[]> lignes = new ArrayList<>(fichiers.size());
+        FileInfo archive = null;
+        for (int i = 0; i < fichiers.size(); i++) {
+            FileInfo fichier = fichiers.get(i);
+            lignes.add(cellules(fichier));
+            if (!fichier.estVirtuel()) {
+                archive = fichier; // Ses entrées, triées juste après, la suivent
+            }
+            FileInfo suivant = i + 1 < fichiers.size() ? fichiers.get(i + 1) : null;
+            boolean finArchive = suivant == null || !suivant.estVirtuel()
+                || !suivant.getArchiveParente().equals(archive.getCheminComplet());
+            if (finArchive && archive.getEntreesNonListees() != 0) {
+                long nombre = archive.getEntreesNonListees();
+                String[] cellules = new String[enTetes().length];
+                Arrays.fill(cellules, "");
+                cellules[0] = nombre == FileInfo.ENTREES_NON_LISTEES_INCONNUES
+                    ? "  > ... entrées suivantes non listées" : "  > ... " + nombre + " entrée(s) non listée(s)";
+                lignes.add(cellules);
+            }
+        }
+        return lignes;
+    }
+
+    /**
+     * Textes des colonnes d'une ligne du tableau
+     */
+    private String[] cellules(FileInfo fichier) {
+        // Nom (tronqué si nécessaire)
+        String nom = fichier.getNom();
+        if (fichier.estDossier()) {
+            nom = "[D] " + nom; // Préfixe pour les dossiers
+        } else if (fichier.estDoublon()) {
+            nom = "[L] " + nom; // Préfixe pour les liens vers un fichier déjà compté
+        } else if (fichier.estVirtuel()) {
+            nom = "  > " + nom; // Préfixe pour les entrées d'archive
+        }
+        int longueurNom = avecLignes ? 37 : 40;
+        if (nom.length() > longueurNom) {
+            nom = nom.substring(0, longueurNom - 3) + "...";
+        }
+
+        // Type MIME (tronqué si nécessaire) ; nombre de fichiers estimé pour un dossier estimé
+        String mime = fichier.getEstimation() != null ? fichier.getEstimation().decrireNombre() : fichier.getTypeMime();
+        if (mime.length() > 30) {
+            mime = mime.substring(0, 27) + "...";
+        }
+
+        String extension = fichier.getExtension().isEmpty() ? "-" : fichier.getExtension();
+        if (avecLignes) {
+            String lignes = fichier.getLignes() >= 0 ? String.valueOf(fichier.getLignes()) : "-";
+            return new String[] {nom, extension, mime, fichier.getCategorie(), fichier.getTailleLisible(), lignes};
+        }
+        return new String[] {nom, extension, mime, fichier.getCategorie(), fichier.getTailleLisible()};
+    }
+
+    private String[] enTetes() {
+        return avecLignes ? EN_TETES_LIGNES : EN_TETES;
+    }
+
+    private float[] largeursColonnes(float tableWidth) {
+        if (avecLignes) {
+            return new float[] {
+                tableWidth * 0.32f, tableWidth * 0.09f, tableWidth * 0.24f, tableWidth * 0.12f, tableWidth * 0.12f,
+                tableWidth * 0.11f
+            };
+        }
+        return new float[] {
+            tableWidth * 0.35f, tableWidth * 0.12f, tableWidth * 0.25f, tableWidth * 0.13f, tableWidth * 0.15f
+        };
+    }
+
+    private static void dessinerEntetesColonnes(PDPageContentStream contentStream, PDType1Font font,
+                                                float x, float y, float[] colWidths, String[] enTetes) throws IOException {
+        contentStream.beginText();
+        contentStream.setFont(font, FONT_SIZE_BODY);
+        contentStream.newLineAtOffset(x, y);
+        for (int i = 0; i < enTetes.length; i++) {
+            contentStream.showText(libelleEnTete(enTetes[i]));
+            if (i < enTetes.length - 1) {
+                contentStream.newLineAtOffset(colWidths[i], 0);
+            }
+        }
+        contentStream.endText();
+    }
+
     /**
      * Dessine les statistiques en bas du document
      */
     private void dessinerStatistiques(PDPageContentStream contentStream, float yPosition, 
-                                      List<FileInfo> fichiers) throws IOException {
+                                      List<FileInfo> fichiers, ScanStatistics statistiques) throws IOException {
         if (yPosition < MARGIN + 30) {
             return; // Pas assez de place
         }
 
         PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
         
-        long tailleTotale = fichiers.stream().mapToLong(FileInfo::getTailleOctets).sum();
+        // Les statistiques couvrent tous les fichiers comptés, sauf lorsque des tailles sont estimées
+        long tailleTotale = statistiques.sontPartielles()
+            ? fichiers.stream().filter(FileInfo::compteDansTotaux).mapToLong(FileInfo::getTailleOctets).sum()
+            : statistiques.getTotal().getOctets();
+        long nombreFichiers = fichiers.stream().filter(FileInfo::compteDansTotaux).count();
         String tailleTotaleLisible = formaterTaille(tailleTotale);
 
         yPosition -= 20;
@@ -245,15 +441,389 @@ public class PdfGenerator {
         contentStream.beginText();
         contentStream.setFont(font, FONT_SIZE_BODY);
         contentStream.newLineAtOffset(MARGIN + 10, yPosition);
-        contentStream.showText(String.format("Nombre total de fichiers : %d", fichiers.size()));
+        contentStream.showText(String.format("Nombre total de fichiers : %d", nombreFichiers));
         contentStream.endText();
 
         yPosition -= 15;
         contentStream.beginText();
         contentStream.setFont(font, FONT_SIZE_BODY);
         contentStream.newLineAtOffset(MARGIN + 10, yPosition);
-        contentStream.showText("Taille totale : " + tailleTotaleLisible);
+        long nombreEstimes = fichiers.stream().filter(FileInfo::estEstime).count();
+        contentStream.showText("Taille totale : " + (nombreEstimes > 0 ? "~" : "") + tailleTotaleLisible);
         contentStream.endText();
+
+        if (nombreEstimes > 0 && yPosition >= MARGIN + 15) {
+            // Bornes de l'estimation : somme des bornes à 95 % de chaque entrée
+            long tailleMin = 0;
+            long tailleMax = 0;
+            boolean maxConnu = true;
+            long nonAtteints = 0;
+            for (FileInfo fichier : fichiers) {
+                if (!fichier.compteDansTotaux()) {
+                    continue;
+                }
+                EstimationTaille estimation = fichier.getEstimation();
+                if (estimation == null) {
+                    tailleMin += fichier.getTailleOctets();
+                    tailleMax += fichier.getTailleOctets();
+                } else {
+                    tailleMin += estimation.getTailleMin();
+                    maxConnu &= estimation.getTailleMax() != EstimationTaille.INCONNUE;
+                    tailleMax += estimation.getTailleMax();
+                    if (!estimation.estAtteinte()) {
+                        nonAtteints++;
+                    }
+                }
+            }
+
+            yPosition -= 15;
+            contentStream.beginText();
+            contentStream.setFont(font, FONT_SIZE_BODY);
+            contentStream.newLineAtOffset(MARGIN + 10, yPosition);
+            contentStream.showText(String.format("Valeurs estimées (~) : %d dossier(s)%s, taille totale entre %s et %s",
+                nombreEstimes, nonAtteints > 0 ? " dont " + nonAtteints + " " + EstimationTaille.NON_ESTIMEE + "(s)" : "",
+                formaterTaille(tailleMin), maxConnu ? formaterTaille(tailleMax) : "?"));
+            contentStream.endText();
+        }
+
+        ScanStatistics.Contenu contenu = statistiques.getContenuTotal();
+        if (contenu.getNombre() > 0 && yPosition >= MARGIN + 15) {
+            yPosition -= 15;
+            contentStream.beginText();
+            contentStream.setFont(font, FONT_SIZE_BODY);
+            contentStream.newLineAtOffset(MARGIN + 10, yPosition);
+            contentStream.showText(String.format("Lignes : %d ligne(s), %d caractère(s) dans %d fichier(s) texte",
+                contenu.getLignes(), contenu.getCaracteres(), contenu.getNombre()));
+            contentStream.endText();
+        }
+    }
+
+    /**
+     * Dessine le résumé des statistiques : tableaux et barres par catégorie, par extension,
+     * histogramme des tailles et répartition par profondeur
+     */
+    private void dessinerResume(PDDocument document, ScanStatistics statistiques) throws IOException {
+        ScanStatistics.Compteur total = statistiques.getTotal();
+
+        try (PagesResume pages = new PagesResume(document)) {
+            PDPageContentStream contentStream = pages.reserver(25);
+            ecrire(contentStream, pages.fontTitre, FONT_SIZE_TITLE, MARGIN, pages.y, "Résumé");
+
+            contentStream = pages.reserver(15);
+            ecrire(contentStream, pages.fontCorps, FONT_SIZE_HEADER, MARGIN, pages.y,
+                String.format("%d fichier(s), %s", total.getNombre(), formaterTaille(total.getOctets())));
+            if (statistiques.sontPartielles()) {
+                contentStream = pages.reserver(15);
+                ecrire(contentStream, pages.fontCorps, FONT_SIZE_BODY, MARGIN, pages.y,
+                    "Statistiques partielles : les fichiers des dossiers estimés ne sont pas comptés");
+                contentStream = pages.reserver(15);
+                ecrire(contentStream, pages.fontCorps, FONT_SIZE_BODY, MARGIN, pages.y,
+                    "Liens physiques non dédoublonnés dans les dossiers estimés (mode approximatif)");
+            }
+
+            // Par catégorie
+            List<ScanStatistics.Compteur> categories = statistiques.getParCategorie();
+            dessinerTableauResume(pages, "Par catégorie", "Catégorie", categories, total.getOctets());
+            dessinerHistogrammes(pages, categories);
+            dessinerContenu(pages, statistiques);
+
+            // Par extension (les plus volumineuses)
+            List<ScanStatistics.Compteur> extensions = statistiques.getParExtension();
+            String titreExtensions = extensions.size() > EXTENSIONS_MAX
+                ? "Par extension (" + EXTENSIONS_MAX + " plus volumineuses sur " + extensions.size() + ")"
+                : "Par extension";
+            dessinerTableauResume(pages, titreExtensions, "Extension",
+                extensions.subList(0, Math.min(EXTENSIONS_MAX, extensions.size())), total.getOctets());
+
+            // Histogramme global des tailles
+            long[] tranches = total.getTranches();
+            long maxTranche = 0;
+            for (long nombre : tranches) {
+                maxTranche = Math.max(maxTranche, nombre);
+            }
+            dessinerSousTitre(pages, "Tailles des fichiers", "Taille", "Fichiers");
+            for (int i = 0; i < tranches.length; i++) {
+                dessinerLigneBarre(pages, ScanStatistics.LIBELLES_TRANCHES[i], String.valueOf(tranches[i]), "",
+                    tranches[i], maxTranche);
+            }
+
+            // Répartition par profondeur
+            long[] profondeurs = statistiques.getParProfondeur();
+            int derniere = 0;
+            long maxProfondeur = 0;
+            for (int i = 0; i < profondeurs.length; i++) {
+                if (profondeurs[i] > 0) {
+                    derniere = i;
+                    maxProfondeur = Math.max(maxProfondeur, profondeurs[i]);
+                }
+            }
+            dessinerSousTitre(pages, "Profondeur", "Profondeur", "Fichiers");
+            for (int i = 1; i <= derniere; i++) {
+                String libelle = i == ScanStatistics.PROFONDEUR_MAX ? ">= " + i : String.valueOf(i);
+                dessinerLigneBarre(pages, libelle, String.valueOf(profondeurs[i]), "", profondeurs[i], maxProfondeur);
+            }
+        }
+    }
+
+    /**
+     * Dessine un tableau nom / nombre / taille avec une barre proportionnelle à la taille
+     */
+    private void dessinerTableauResume(PagesResume pages, String titre, String colonne,
+                                       List<ScanStatistics.Compteur> compteurs, long octetsTotal) throws IOException {
+        long maxOctets = compteurs.isEmpty() ? 0 : compteurs.get(0).getOctets();
+        dessinerSousTitre(pages, titre, colonne, "Fichiers", "Taille");
+        for (ScanStatistics.Compteur compteur : compteurs) {
+            String nom = compteur.getNom().isEmpty() ? "(aucune)" : compteur.getNom();
+            String pourcentage = octetsTotal > 0
+                ? String.format(" (%.1f %%)", 100.0 * compteur.getOctets() / octetsTotal) : "";
+            dessinerLigneBarre(pages, nom, String.valueOf(compteur.getNombre()),
+                formaterTaille(compteur.getOctets()) + pourcentage, compteur.getOctets(), maxOctets);
+        }
+    }
+
+    /**
+     * Dessine le nombre de lignes par catégorie des fichiers texte dont le contenu a été compté
+     */
+    private void dessinerContenu(PagesResume pages, ScanStatistics statistiques) throws IOException {
+        List<ScanStatistics.Contenu> categories = statistiques.getContenuParCategorie();
+        if (categories.isEmpty()) {
+            return;
+        }
+        long maxLignes = categories.get(0).getLignes();
+        dessinerSousTitre(pages, "Lignes par catégorie", "Catégorie", "Fichiers", "Lignes (caractères)");
+        for (ScanStatistics.Contenu contenu : categories) {
+            dessinerLigneBarre(pages, contenu.getNom(), String.valueOf(contenu.getNombre()),
+                contenu.getLignes() + " (" + contenu.getCaracteres() + ")", contenu.getLignes(), maxLignes);
+        }
+        ScanStatistics.Contenu total = statistiques.getContenuTotal();
+        dessinerLigneBarre(pages, "Total", String.valueOf(total.getNombre()),
+            total.getLignes() + " (" + total.getCaracteres() + ")", 0, 0);
+    }
+
+    /**
+     * Dessine l'histogramme des tailles de chaque catégorie (nombre de fichiers par tranche)
+     */
+    private void dessinerHistogrammes(PagesResume pages, List<ScanStatistics.Compteur> compteurs) throws IOException {
+        float largeurNom = 80;
+        float largeurTranche = (PDRectangle.A4.getWidth() - 2 * MARGIN - largeurNom) / ScanStatistics.LIBELLES_TRANCHES.length;
+
+        PDPageContentStream contentStream = pages.reserver(32);
+        ecrire(contentStream, pages.fontTitre, FONT_SIZE_HEADER, MARGIN, pages.y + 14, "Tailles par catégorie");
+        for (int i = 0; i < ScanStatistics.LIBELLES_TRANCHES.length; i++) {
+            ecrire(contentStream, pages.fontTitre, FONT_SIZE_BODY, MARGIN + largeurNom + i * largeurTranche, pages.y,
+                ScanStatistics.LIBELLES_TRANCHES[i]);
+        }
+        for (ScanStatistics.Compteur compteur : compteurs) {
+            contentStream = pages.reserver(SUMMARY_ROW_HEIGHT);
+            ecrire(contentStream, pages.fontCorps, FONT_SIZE_BODY, MARGIN, pages.y, compteur.getNom());
+            long[] tranches = compteur.getTranches();
+            for (int i = 0; i < tranches.length; i++) {
+                ecrire(contentStream, pages.fontCorps, FONT_SIZE_BODY, MARGIN + largeurNom + i * largeurTranche, pages.y,
+                    String.valueOf(tranches[i]));
+            }
+        }
+    }
+
+    private void dessinerSousTitre(PagesResume pages, String titre, String... colonnes) throws IOException {
+        PDPageContentStream contentStream = pages.reserver(32);
+        ecrire(contentStream, pages.fontTitre, FONT_SIZE_HEADER, MARGIN, pages.y + 14, titre);
+        float[] positions = {MARGIN, MARGIN + 120, MARGIN + 180};
+        for (int i = 0; i < colonnes.length; i++) {
+            ecrire(contentStream, pages.fontTitre, FONT_SIZE_BODY, positions[i], pages.y, colonnes[i]);
+        }
+    }
+
+    /**
+     * Dessine une ligne du résumé : libellé, nombre, taille et barre horizontale
+     */
+    private void dessinerLigneBarre(PagesResume pages, String libelle, String nombre, String taille,
+                                    long valeur, long valeurMax) throws IOException {
+        PDPageContentStream contentStream = pages.reserver(SUMMARY_ROW_HEIGHT);
+        if (libelle.length() > 22) {
+            libelle = libelle.substring(0, 19) + "...";
+        }
+        ecrire(contentStream, pages.fontCorps, FONT_SIZE_BODY, MARGIN, pages.y, libelle);
+        ecrire(contentStream, pages.fontCorps, FONT_SIZE_BODY, MARGIN + 120, pages.y, nombre);
+        ecrire(contentStream, pages.fontCorps, FONT_SIZE_BODY, MARGIN + 180, pages.y, taille);
+
+        float xBarre = MARGIN + 280;
+        float largeurMax = PDRectangle.A4.getWidth() - MARGIN - xBarre;
+        if (valeurMax > 0 && valeur > 0) {
+            contentStream.setNonStrokingColor(0.6f);
+            contentStream.addRect(xBarre, pages.y - 1, Math.max(1, largeurMax * valeur / valeurMax), SUMMARY_ROW_HEIGHT - 4);
+            contentStream.fill();
+            contentStream.setNonStrokingColor(0f);
+        }
+    }
+
+    private void ecrire(PDPageContentStream contentStream, PDType1Font font, float taille, float x, float y,
+                        String texte) throws IOException {
+        contentStream.beginText();
+        contentStream.setFont(font, taille);
+        contentStream.newLineAtOffset(x, y);
+        contentStream.showText(texte);
+        contentStream.endText();
+    }
+
+    /**
+     * Pages du résumé : ouvre une nouvelle page lorsque la place manque
+     */
+    private static final class PagesResume implements Closeable {
+        private final PDType1Font fontTitre = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+        private final PDType1Font fontCorps = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        private final PDDocument document;
+        private PDPageContentStream contentStream;
+        private float y;
+
+        PagesResume(PDDocument document) {
+            this.document = document;
+        }
+
+        /**
+         * Réserve la hauteur demandée sur la page courante (ou une nouvelle page)
+         * et place {@code y} sur la ligne réservée
+         */
+        PDPageContentStream reserver(float hauteur) throws IOException {
+            if (contentStream == null || y - hauteur < MARGIN) {
+                close();
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+                contentStream = new PDPageContentStream(document, page);
+                y = PDRectangle.A4.getHeight() - MARGIN;
+            }
+            y -= hauteur;
+            return contentStream;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (contentStream != null) {
+                contentStream.close();
+                contentStream = null;
+            }
+        }
+    }
+
+    /**
+     * Gabarits du tableau (mode optimisé) : grille et en-tête dessinés une fois par hauteur
+     * de tableau dans un Form XObject, partagé par toutes les pages du document avec les polices
+     */
+    private static final class GabaritsTableau {
+        private final PDType1Font fontEnTete = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+        private final PDType1Font fontCorps = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        private final PDResources ressources = new PDResources();
+        private final Map<String, PDFormXObject> gabarits = new HashMap<>();
+        private final PDDocument document;
+        private final PDRectangle cadre;
+        private final float tableWidth;
+        private final String[] enTetes;
+        private final float[] largeurs;
+        private final float[] largeursAscii = new float[128];
+
+        /**
+         * @param enTetes Les en-têtes des colonnes
+         * @param largeurs Les largeurs des colonnes, pour un tableau occupant la largeur de la page
+         */
+        GabaritsTableau(PDDocument document, String[] enTetes, float[] largeurs) throws IOException {
+            this.document = document;
+            this.cadre = PDRectangle.A4;
+            this.tableWidth = cadre.getWidth() - 2 * MARGIN;
+            this.enTetes = enTetes;
+            this.largeurs = largeurs;
+            for (int c = ' '; c < 127; c++) {
+                largeursAscii[c] = fontCorps.getWidth(c);
+            }
+        }
+
+        /**
+         * Largeur d'un texte dans la police du corps, en millièmes de la taille de police
+         * (lecture directe pour l'ASCII imprimable, dont le code est identique en WinAnsi)
+         */
+        float largeurTexte(String texte) throws IOException {
+            float largeur = 0;
+            for (int i = 0; i < texte.length(); i++) {
+                char c = texte.charAt(i);
+                if (c < ' ' || c >= 127) {
+                    return fontCorps.getStringWidth(texte);
+                }
+                largeur += largeursAscii[c];
+            }
+            return largeur;
+        }
+
+        /**
+         * @return Le gabarit d'un tableau commençant en {@code yStart} et comptant le nombre de lignes donné
+         */
+        PDFormXObject gabarit(float yStart, int nombreLignes) throws IOException {
+            String cle = yStart + "/" + nombreLignes;
+            PDFormXObject gabarit = gabarits.get(cle);
+            if (gabarit == null) {
+                gabarit = creer(yStart, nombreLignes);
+                gabarits.put(cle, gabarit);
+            }
+            return gabarit;
+        }
+
+        private PDFormXObject creer(float yStart, int nombreLignes) throws IOException {
+            PDFormXObject gabarit = new PDFormXObject(document);
+            gabarit.setBBox(cadre);
+            gabarit.setResources(new PDResources());
+            // Filtre déclaré avant l'écriture : PDFormContentStream écrit alors le flux compressé
+            gabarit.getCOSObject().setItem(COSName.FILTER, COSName.FLATE_DECODE);
+
+            float xStart = MARGIN;
+            float xFin = MARGIN + tableWidth;
+            float separation = yStart - HEADER_HEIGHT;
+            float yFin = separation - 5 - nombreLignes * ROW_HEIGHT;
+
+            try (PDFormContentStream contentStream = new PDFormContentStream(gabarit)) {
+                // En-tête du tableau
+                contentStream.setLineWidth(1.5f);
+                contentStream.moveTo(xStart, yStart);
+                contentStream.lineTo(xFin, yStart);
+                contentStream.stroke();
+                dessinerEntetes(contentStream, xStart + 5, yStart - 5);
+
+                // Ligne de séparation et bordures verticales
+                contentStream.setLineWidth(1f);
+                contentStream.moveTo(xStart, separation);
+                contentStream.lineTo(xFin, separation);
+                contentStream.moveTo(xStart, yStart);
+                contentStream.lineTo(xStart, yFin);
+                contentStream.moveTo(xFin, yStart);
+                contentStream.lineTo(xFin, yFin);
+                contentStream.stroke();
+
+                // Séparations des lignes, en un seul tracé
+                contentStream.setLineWidth(0.5f);
+                for (int i = 1; i <= nombreLignes; i++) {
+                    float y = separation - 5 - i * ROW_HEIGHT;
+                    contentStream.moveTo(xStart, y);
+                    contentStream.lineTo(xFin, y);
+                }
+                contentStream.stroke();
+            }
+            return gabarit;
+        }
+
+        /**
+         * Dessine les en-têtes des colonnes en une seule instruction de texte, comme les lignes du tableau
+         */
+        private void dessinerEntetes(PDFormContentStream contentStream, float x, float y) throws IOException {
+            Object[] elements = new Object[2 * enTetes.length - 1];
+            for (int i = 0; i < enTetes.length; i++) {
+                String libelle = libelleEnTete(enTetes[i]);
+                elements[2 * i] = libelle;
+                if (i < enTetes.length - 1) {
+                    elements[2 * i + 1] = -(largeurs[i] * 1000 / FONT_SIZE_BODY - fontEnTete.getStringWidth(libelle));
+                }
+            }
+            contentStream.beginText();
+            contentStream.setFont(fontEnTete, FONT_SIZE_BODY);
+            contentStream.newLineAtOffset(x, y);
+            contentStream.showTextWithPositioning(elements);
+            contentStream.endText();
+        }
     }
 
     /**
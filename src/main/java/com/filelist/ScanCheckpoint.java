@@ -0,0 +1,202 @@
+package com.filelist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classe représentant un point de reprise du calcul de la taille des dossiers : dossiers terminés
+ * avec leur taille, dossiers restants, statistiques et fichiers physiques déjà comptés.
+ * Le premier dossier restant peut être partiellement calculé : sa taille partielle est enregistrée
+ * avec ses sous-dossiers terminés et les éléments déjà traités des dossiers en cours de parcours.
+ * Un scan interrompu reprend à partir de ce point sans recalculer ce qui a été terminé.
+ * Le listage qui précède le calcul n'y figure pas : il est refait à la reprise.
+ */
+public class ScanCheckpoint {
+    private static final int SIGNATURE = 0x464C5250; // "FLRP"
+    private static final int VERSION = 3;
+
+    private final String parametres;
+    private final List<String> termines;
+    private final List<Long> tailles;
+    private final List<String> restants;
+    private final long tailleEnCours;
+    private final List<String> sousDossiersTermines;
+    private final List<String> elementsTraites;
+    private final ScanStatistics statistiques;
+    private final FileKeySet cles;
+    private final long nombreDoublons;
+    private final long nombreBoucles;
+
+    /**
+     * @param parametres Description du scan (répertoire et options), qui doit être identique à la reprise
+     * @param termines Les dossiers terminés (chemins relatifs au répertoire scanné), dans l'ordre du calcul
+     * @param tailles La taille de chaque dossier terminé
+     * @param restants Les dossiers restant à calculer, le premier pouvant être en cours
+     * @param tailleEnCours La taille partielle du premier dossier restant
+     * @param sousDossiersTermines Les sous-dossiers terminés du dossier en cours (chemins relatifs à ce dossier)
+     * @param elementsTraites Les éléments déjà traités des sous-dossiers en cours de parcours (chemins relatifs)
+     * @param cles Les fichiers physiques déjà comptés (null si le dédoublonnage est désactivé)
+     */
+    public ScanCheckpoint(String parametres, List<String> termines, List<Long> tailles, List<String> restants,
+                          long tailleEnCours, List<String> sousDossiersTermines, List<String> elementsTraites,
+                          ScanStatistics statistiques, FileKeySet cles, long nombreDoublons, long nombreBoucles) {
+        this.parametres = parametres;
+        this.termines = termines;
+        this.tailles = tailles;
+        this.restants = restants;
+        this.tailleEnCours = tailleEnCours;
+        this.sousDossiersTermines = sousDossiersTermines;
+        this.elementsTraites = elementsTraites;
+        this.statistiques = statistiques;
+        this.cles = cles;
+        this.nombreDoublons = nombreDoublons;
+        this.nombreBoucles = nombreBoucles;
+    }
+
+    /**
+     * Écrit le point de reprise dans un fichier temporaire puis le renomme, pour qu'une interruption
+     * pendant l'écriture laisse intact le point de reprise précédent
+     */
+    public void ecrire(Path fichier) throws IOException {
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream sortie = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal), 1 << 16));
+            sortie.writeInt(SIGNATURE);
+            sortie.writeInt(VERSION);
+            sortie.writeUTF(parametres);
+            sortie.writeLong(nombreDoublons);
+            sortie.writeLong(nombreBoucles);
+            statistiques.ecrire(sortie);
+            sortie.writeBoolean(cles != null);
+            if (cles != null) {
+                cles.ecrire(sortie);
+            }
+            sortie.writeInt(termines.size());
+            for (int i = 0; i < termines.size(); i++) {
+                sortie.writeUTF(termines.get(i));
+                sortie.writeLong(tailles.get(i));
+            }
+            sortie.writeInt(restants.size());
+            for (String restant : restants) {
+                sortie.writeUTF(restant);
+            }
+            sortie.writeLong(tailleEnCours);
+            ecrireListe(sortie, sousDossiersTermines);
+            ecrireListe(sortie, elementsTraites);
+            sortie.flush();
+            canal.force(true);
+        }
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Relit un point de reprise écrit par {@link #ecrire(Path)}
+     */
+    public static ScanCheckpoint lire(Path fichier) throws IOException {
+        try (DataInputStream entree = new DataInputStream(new BufferedInputStream(Files.newInputStream(fichier), 1 << 16))) {
+            if (entree.readInt() != SIGNATURE || entree.readInt() != VERSION) {
+                throw new IOException("format de point de reprise inconnu");
+            }
+            String parametres = entree.readUTF();
+            long nombreDoublons = entree.readLong();
+            long nombreBoucles = entree.readLong();
+            ScanStatistics statistiques = ScanStatistics.lire(entree);
+            FileKeySet cles = entree.readBoolean() ? FileKeySet.lire(entree) : null;
+            int nombreTermines = entree.readInt();
+            List<String> termines = new ArrayList<>(nombreTermines);
+            List<Long> tailles = new ArrayList<>(nombreTermines);
+            for (int i = 0; i < nombreTermines; i++) {
+                termines.add(entree.readUTF());
+                tailles.add(entree.readLong());
+            }
+            int nombreRestants = entree.readInt();
+            List<String> restants = new ArrayList<>(nombreRestants);
+            for (int i = 0; i < nombreRestants; i++) {
+                restants.add(entree.readUTF());
+            }
+            long tailleEnCours = entree.readLong();
+            List<String> sousDossiersTermines = lireListe(entree);
+            List<String> elementsTraites = lireListe(entree);
+            return new ScanCheckpoint(parametres, termines, tailles, restants, tailleEnCours, sousDossiersTermines,
+                elementsTraites, statistiques, cles, nombreDoublons, nombreBoucles);
+        }
+    }
+
+    private static void ecrireListe(DataOutputStream sortie, List<String> liste) throws IOException {
+        sortie.writeInt(liste.size());
+        for (String element : liste) {
+            sortie.writeUTF(element);
+        }
+    }
+
+    private static List<String> lireListe(DataInputStream entree) throws IOException {
+        int nombre = entree.readInt();
+        List<String> liste = new ArrayList<>(nombre);
+        for (int i = 0; i < nombre; i++) {
+            liste.add(entree.readUTF());
+        }
+        return liste;
+    }
+
+    /**
+     * Indique si le point de reprise correspond au scan décrit (mêmes paramètres et mêmes dossiers listés)
+     * @param dossiers Les dossiers listés par le scan, dans l'ordre du calcul
+     */
+    public boolean correspond(String parametres, List<String> dossiers) {
+        if (!this.parametres.equals(parametres) || termines.size() + restants.size() != dossiers.size()) {
+            return false;
+        }
+        return dossiers.subList(0, termines.size()).equals(termines)
+            && dossiers.subList(termines.size(), dossiers.size()).equals(restants);
+    }
+
+    public List<Long> getTailles() {
+        return tailles;
+    }
+
+    /**
+     * @return La taille partielle du premier dossier restant
+     */
+    public long getTailleEnCours() {
+        return tailleEnCours;
+    }
+
+    public List<String> getSousDossiersTermines() {
+        return sousDossiersTermines;
+    }
+
+    public List<String> getElementsTraites() {
+        return elementsTraites;
+    }
+
+    public ScanStatistics getStatistiques() {
+        return statistiques;
+    }
+
+    /**
+     * @return Les fichiers physiques déjà comptés, ou null si le dédoublonnage était désactivé
+     */
+    public FileKeySet getCles() {
+        return cles;
+    }
+
+    public long getNombreDoublons() {
+        return nombreDoublons;
+    }
+
+    public long getNombreBoucles() {
+        return nombreBoucles;
+    }
+}
@@ -0,0 +1,172 @@
+package com.filelist;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Classe représentant un filtre des fichiers scannés (taille, date de modification, catégorie),
+ * évalué pendant le parcours : les fichiers refusés ne sont ni listés ni comptés dans la taille
+ * des dossiers ou dans les statistiques.
+ *
+ * La taille et la date sont comparées aux attributs lus par le parcours, sans autre lecture ni
+ * allocation. La catégorie est toujours déduite de l'extension (Autre si elle est inconnue), pour
+ * les fichiers listés comme pour ceux comptés dans la taille des dossiers : la catégorie affichée
+ * d'un fichier d'extension inconnue, issue de la détection du type MIME, peut donc différer de celle
+ * retenue par le filtre.
+ *
+ * Les entrées des archives ({@code --archives}) sont filtrées sur leur taille décompressée et leur
+ * extension ; leur date n'étant pas lue, les critères de date ne s'appliquent qu'à l'archive.
+ */
+public class ScanFilter {
+    private long tailleMin = 0;
+    private long tailleMax = Long.MAX_VALUE;
+    private long modifieDepuis = Long.MIN_VALUE;
+    private long modifieAvant = Long.MAX_VALUE;
+    private Set<String> categories = null;
+
+    /**
+     * Limite la taille des fichiers acceptés (bornes incluses)
+     * @param tailleMin La taille minimale en octets (0 = sans minimum)
+     * @param tailleMax La taille maximale en octets (Long.MAX_VALUE = sans maximum)
+     */
+    public void setTaille(long tailleMin, long tailleMax) {
+        if (tailleMin < 0 || tailleMax < tailleMin) {
+            throw new IllegalArgumentException("Bornes de taille invalides : " + tailleMin + " - " + tailleMax);
+        }
+        this.tailleMin = tailleMin;
+        this.tailleMax = tailleMax;
+    }
+
+    /**
+     * Limite la date de dernière modification des fichiers acceptés
+     * @param depuis Les fichiers modifiés à partir de cet instant (null = sans limite)
+     * @param avant Les fichiers modifiés avant cet instant (null = sans limite)
+     */
+    public void setModification(Instant depuis, Instant avant) {
+        this.modifieDepuis = depuis != null ? depuis.toEpochMilli() : Long.MIN_VALUE;
+        this.modifieAvant = avant != null ? avant.toEpochMilli() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Limite les catégories des fichiers acceptés (casse ignorée)
+     * @param categories Les catégories acceptées (null = toutes)
+     */
+    public void setCategories(Collection<String> categories) {
+        if (categories == null) {
+            this.categories = null;
+            return;
+        }
+        Set<String> acceptees = new TreeSet<>();
+        for (String categorie : categories) {
+            String nom = categorie.trim();
+            String connue = MimeTypeDetector.CATEGORIES.stream().filter(c -> c.equalsIgnoreCase(nom)).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Catégorie inconnue : " + nom
+                    + " (catégories : " + String.join(", ", MimeTypeDetector.CATEGORIES) + ")"));
+            acceptees.add(connue);
+        }
+        this.categories = acceptees;
+    }
+
+    /**
+     * Évalue le filtre sans lire le contenu du fichier : taille et date, puis catégorie déduite de l'extension
+     */
+    public boolean accepte(Path fichier, BasicFileAttributes attrs) {
+        if (!accepteTaille(attrs.size())) {
+            return false;
+        }
+        if (modifieDepuis != Long.MIN_VALUE || modifieAvant != Long.MAX_VALUE) {
+            long modification = attrs.lastModifiedTime().toMillis();
+            if (modification < modifieDepuis || modification >= modifieAvant) {
+                return false;
+            }
+        }
+        return accepteExtension(fichier.getFileName().toString());
+    }
+
+    /**
+     * Évalue le filtre pour une entrée d'archive : taille décompressée et catégorie déduite de l'extension
+     * @param nom Le nom de l'entrée
+     */
+    public boolean accepteEntree(String nom, long taille) {
+        return accepteTaille(taille) && accepteExtension(nom);
+    }
+
+    private boolean accepteTaille(long taille) {
+        return taille >= tailleMin && taille <= tailleMax;
+    }
+
+    private boolean accepteExtension(String nom) {
+        if (categories == null) {
+            return true;
+        }
+        return categories.contains(MimeTypeDetector.determinerCategorieParExtension(nom));
+    }
+
+    /**
+     * Écrit le filtre (demande à un processus de scan)
+     */
+    public void ecrire(DataOutput sortie) throws IOException {
+        sortie.writeLong(tailleMin);
+        sortie.writeLong(tailleMax);
+        sortie.writeLong(modifieDepuis);
+        sortie.writeLong(modifieAvant);
+        sortie.writeInt(categories != null ? categories.size() : -1);
+        if (categories != null) {
+            for (String categorie : categories) {
+                sortie.writeUTF(categorie);
+            }
+        }
+    }
+
+    /**
+     * Relit un filtre écrit par {@link #ecrire(DataOutput)}
+     */
+    public static ScanFilter lire(DataInput entree) throws IOException {
+        ScanFilter filtre = new ScanFilter();
+        filtre.tailleMin = entree.readLong();
+        filtre.tailleMax = entree.readLong();
+        filtre.modifieDepuis = entree.readLong();
+        filtre.modifieAvant = entree.readLong();
+        int nombre = entree.readInt();
+        if (nombre >= 0) {
+            filtre.categories = new TreeSet<>();
+            for (int i = 0; i < nombre; i++) {
+                filtre.categories.add(entree.readUTF());
+            }
+        }
+        return filtre;
+    }
+
+    /**
+     * @return La description du filtre (également utilisée pour reconnaître le scan d'un point de reprise)
+     */
+    @Override
+    public String toString() {
+        List<String> criteres = new ArrayList<>();
+        if (tailleMin > 0) {
+            criteres.add("taille >= " + tailleMin + " o");
+        }
+        if (tailleMax != Long.MAX_VALUE) {
+            criteres.add("taille <= " + tailleMax + " o");
+        }
+        if (modifieDepuis != Long.MIN_VALUE) {
+            criteres.add("modifiés depuis " + Instant.ofEpochMilli(modifieDepuis));
+        }
+        if (modifieAvant != Long.MAX_VALUE) {
+            criteres.add("modifiés avant " + Instant.ofEpochMilli(modifieAvant));
+        }
+        if (categories != null) {
+            criteres.add("catégories " + String.join(", ", categories));
+        }
+        return criteres.isEmpty() ? "aucun" : String.join(", ", criteres);
+    }
+}
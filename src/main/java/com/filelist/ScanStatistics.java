@@ -0,0 +1,344 @@
+package com.filelist;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Classe accumulant les statistiques d'un scan (par catégorie, par extension, par profondeur)
+ * au fur et à mesure du parcours. Les compteurs sont répartis ({@link LongAdder}) et peuvent
+ * être alimentés simultanément par plusieurs threads.
+ * La catégorie comptée est toujours celle de l'extension ({@link MimeTypeDetector#determinerCategorieParExtension}),
+ * comme pour le filtre par catégorie, même si le type MIME détecté d'un fichier listé en indique une autre.
+ */
+public class ScanStatistics {
+    /** Bornes supérieures (exclues) des tranches de taille, la dernière tranche étant ouverte */
+    private static final long[] BORNES_TRANCHES = {
+        1024L, 10 * 1024L, 100 * 1024L, 1024L * 1024, 10 * 1024L * 1024, 100 * 1024L * 1024, 1024L * 1024 * 1024
+    };
+    public static final String[] LIBELLES_TRANCHES = {
+        "< 1 Ko", "< 10 Ko", "< 100 Ko", "< 1 Mo", "< 10 Mo", "< 100 Mo", "< 1 Go", ">= 1 Go"
+    };
+    /** Profondeur maximale détaillée, les profondeurs supérieures étant regroupées */
+    public static final int PROFONDEUR_MAX = 32;
+
+    private final Map<String, Compteur> parCategorie = new ConcurrentHashMap<>();
+    private final Map<String, Compteur> parExtension = new ConcurrentHashMap<>();
+    private final Compteur total = new Compteur("Total");
+    private final LongAdder[] parProfondeur = new LongAdder[PROFONDEUR_MAX + 1];
+    private final Map<String, Contenu> contenuParCategorie = new ConcurrentHashMap<>();
+    private final Contenu contenuTotal = new Contenu("Total");
+    private volatile boolean partielles;
+
+    public ScanStatistics() {
+        for (int i = 0; i < parProfondeur.length; i++) {
+            parProfondeur[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Calcule les statistiques d'une liste déjà constituée (entrées comptées dans les totaux,
+     * hors dossiers dont le contenu n'est pas détaillé)
+     */
+    public static ScanStatistics depuis(List<FileInfo> fichiers, Path repertoire) {
+        ScanStatistics statistiques = new ScanStatistics();
+        for (FileInfo fichier : fichiers) {
+            if (!fichier.estDossier() && fichier.compteDansTotaux()) {
+                int profondeur = repertoire.relativize(fichier.getCheminComplet()).getNameCount();
+                statistiques.enregistrer(categorie(fichier), fichier.getExtension(), fichier.getTailleOctets(), profondeur);
+            }
+        }
+        return statistiques;
+    }
+
+    /**
+     * @return La catégorie comptée d'un fichier listé (nom d'une entrée d'archive sans ses dossiers)
+     */
+    static String categorie(FileInfo fichier) {
+        String nom = fichier.getNom();
+        return MimeTypeDetector.determinerCategorieParExtension(nom.substring(nom.lastIndexOf('/') + 1));
+    }
+
+    /**
+     * Enregistre un fichier compté
+     * @param profondeur La profondeur du fichier par rapport au répertoire scanné (1 = fichier à la racine)
+     */
+    public void enregistrer(String categorie, String extension, long taille, int profondeur) {
+        int tranche = tranche(taille);
+        parCategorie.computeIfAbsent(categorie, Compteur::new).ajouter(taille, tranche);
+        parExtension.computeIfAbsent(extension, Compteur::new).ajouter(taille, tranche);
+        total.ajouter(taille, tranche);
+        parProfondeur[Math.min(profondeur, PROFONDEUR_MAX)].increment();
+    }
+
+    /**
+     * Enregistre le contenu compté d'un fichier texte (étape suivant le scan, voir {@link ContentCounter})
+     * @param octets Le nombre d'octets lus
+     */
+    public void enregistrerContenu(String categorie, long octets, long lignes, long caracteres) {
+        contenuParCategorie.computeIfAbsent(categorie, Contenu::new).ajouter(1, octets, lignes, caracteres);
+        contenuTotal.ajouter(1, octets, lignes, caracteres);
+    }
+
+    /**
+     * Indique que certains fichiers n'ont pas pu être comptés (tailles de dossiers estimées)
+     */
+    public void marquerPartielles() {
+        this.partielles = true;
+    }
+
+    public boolean sontPartielles() {
+        return partielles;
+    }
+
+    /**
+     * @return Les compteurs par catégorie, triés par taille décroissante
+     */
+    public List<Compteur> getParCategorie() {
+        return trier(parCategorie.values());
+    }
+
+    /**
+     * @return Les compteurs par extension, triés par taille décroissante
+     */
+    public List<Compteur> getParExtension() {
+        return trier(parExtension.values());
+    }
+
+    public Compteur getTotal() {
+        return total;
+    }
+
+    /**
+     * @return Le contenu compté par catégorie, trié par nombre de lignes décroissant (vide si non compté)
+     */
+    public List<Contenu> getContenuParCategorie() {
+        List<Contenu> liste = new ArrayList<>(contenuParCategorie.values());
+        liste.sort(Comparator.comparingLong(Contenu::getLignes).reversed().thenComparing(Contenu::getNom));
+        return liste;
+    }
+
+    public Contenu getContenuTotal() {
+        return contenuTotal;
+    }
+
+    /**
+     * @return Le nombre de fichiers par profondeur (indice = profondeur, le dernier indice regroupant les profondeurs supérieures)
+     */
+    public long[] getParProfondeur() {
+        long[] valeurs = new long[parProfondeur.length];
+        for (int i = 0; i < valeurs.length; i++) {
+            valeurs[i] = parProfondeur[i].sum();
+        }
+        return valeurs;
+    }
+
+    /**
+     * Ajoute les compteurs d'un autre scan (partie d'un scan réparti entre plusieurs processus)
+     */
+    public void ajouter(ScanStatistics autres) {
+        for (Compteur compteur : autres.parCategorie.values()) {
+            parCategorie.computeIfAbsent(compteur.nom, Compteur::new).ajouter(compteur);
+        }
+        for (Compteur compteur : autres.parExtension.values()) {
+            parExtension.computeIfAbsent(compteur.nom, Compteur::new).ajouter(compteur);
+        }
+        total.ajouter(autres.total);
+        for (int i = 0; i < parProfondeur.length; i++) {
+            parProfondeur[i].add(autres.parProfondeur[i].sum());
+        }
+        for (Contenu contenu : autres.contenuParCategorie.values()) {
+            contenuParCategorie.computeIfAbsent(contenu.nom, Contenu::new).ajouter(contenu);
+        }
+        contenuTotal.ajouter(autres.contenuTotal);
+        if (autres.partielles) {
+            partielles = true;
+        }
+    }
+
+    /**
+     * Écrit les compteurs (point de reprise d'un scan, résultat d'un processus de scan).
+     * Le contenu, compté après le scan, n'est pas écrit.
+     */
+    public void ecrire(DataOutput sortie) throws IOException {
+        sortie.writeBoolean(partielles);
+        total.ecrire(sortie);
+        ecrire(sortie, parCategorie.values());
+        ecrire(sortie, parExtension.values());
+        for (LongAdder nombre : parProfondeur) {
+            sortie.writeLong(nombre.sum());
+        }
+    }
+
+    /**
+     * Relit des compteurs écrits par {@link #ecrire(DataOutput)}
+     */
+    public static ScanStatistics lire(DataInput entree) throws IOException {
+        ScanStatistics statistiques = new ScanStatistics();
+        statistiques.partielles = entree.readBoolean();
+        statistiques.total.lire(entree);
+        lire(entree, statistiques.parCategorie);
+        lire(entree, statistiques.parExtension);
+        for (LongAdder nombre : statistiques.parProfondeur) {
+            nombre.add(entree.readLong());
+        }
+        return statistiques;
+    }
+
+    private static void ecrire(DataOutput sortie, Collection<Compteur> compteurs) throws IOException {
+        List<Compteur> liste = new ArrayList<>(compteurs);
+        sortie.writeInt(liste.size());
+        for (Compteur compteur : liste) {
+            sortie.writeUTF(compteur.nom);
+            compteur.ecrire(sortie);
+        }
+    }
+
+    private static void lire(DataInput entree, Map<String, Compteur> compteurs) throws IOException {
+        int nombre = entree.readInt();
+        for (int i = 0; i < nombre; i++) {
+            Compteur compteur = new Compteur(entree.readUTF());
+            compteur.lire(entree);
+            compteurs.put(compteur.nom, compteur);
+        }
+    }
+
+    private static List<Compteur> trier(Collection<Compteur> compteurs) {
+        List<Compteur> liste = new ArrayList<>(compteurs);
+        liste.sort(Comparator.comparingLong(Compteur::getOctets).reversed().thenComparing(Compteur::getNom));
+        return liste;
+    }
+
+    private static int tranche(long taille) {
+        for (int i = 0; i < BORNES_TRANCHES.length; i++) {
+            if (taille < BORNES_TRANCHES[i]) {
+                return i;
+            }
+        }
+        return BORNES_TRANCHES.length;
+    }
+
+    /**
+     * Nombre de fichiers, taille cumulée et histogramme des tailles d'un groupe de fichiers
+     */
+    public static class Compteur {
+        private final String nom;
+        private final LongAdder nombre = new LongAdder();
+        private final LongAdder octets = new LongAdder();
+        private final LongAdder[] tranches = new LongAdder[LIBELLES_TRANCHES.length];
+
+        Compteur(String nom) {
+            this.nom = nom;
+            for (int i = 0; i < tranches.length; i++) {
+                tranches[i] = new LongAdder();
+            }
+        }
+
+        void ajouter(long taille, int tranche) {
+            nombre.increment();
+            octets.add(taille);
+            tranches[tranche].increment();
+        }
+
+        void ajouter(Compteur autre) {
+            nombre.add(autre.nombre.sum());
+            octets.add(autre.octets.sum());
+            for (int i = 0; i < tranches.length; i++) {
+                tranches[i].add(autre.tranches[i].sum());
+            }
+        }
+
+        void ecrire(DataOutput sortie) throws IOException {
+            sortie.writeLong(nombre.sum());
+            sortie.writeLong(octets.sum());
+            for (LongAdder tranche : tranches) {
+                sortie.writeLong(tranche.sum());
+            }
+        }
+
+        void lire(DataInput entree) throws IOException {
+            nombre.add(entree.readLong());
+            octets.add(entree.readLong());
+            for (LongAdder tranche : tranches) {
+                tranche.add(entree.readLong());
+            }
+        }
+
+        public String getNom() {
+            return nom;
+        }
+
+        public long getNombre() {
+            return nombre.sum();
+        }
+
+        public long getOctets() {
+            return octets.sum();
+        }
+
+        /**
+         * @return Le nombre de fichiers par tranche de taille (voir {@link #LIBELLES_TRANCHES})
+         */
+        public long[] getTranches() {
+            long[] valeurs = new long[tranches.length];
+            for (int i = 0; i < valeurs.length; i++) {
+                valeurs[i] = tranches[i].sum();
+            }
+            return valeurs;
+        }
+    }
+
+    /**
+     * Nombre de fichiers texte, octets lus, lignes et caractères d'un groupe de fichiers
+     */
+    public static class Contenu {
+        private final String nom;
+        private final LongAdder nombre = new LongAdder();
+        private final LongAdder octets = new LongAdder();
+        private final LongAdder lignes = new LongAdder();
+        private final LongAdder caracteres = new LongAdder();
+
+        Contenu(String nom) {
+            this.nom = nom;
+        }
+
+        void ajouter(long fichiers, long octets, long lignes, long caracteres) {
+            this.nombre.add(fichiers);
+            this.octets.add(octets);
+            this.lignes.add(lignes);
+            this.caracteres.add(caracteres);
+        }
+
+        void ajouter(Contenu autre) {
+            ajouter(autre.getNombre(), autre.getOctets(), autre.getLignes(), autre.getCaracteres());
+        }
+
+        public String getNom() {
+            return nom;
+        }
+
+        public long getNombre() {
+            return nombre.sum();
+        }
+
+        public long getOctets() {
+            return octets.sum();
+        }
+
+        public long getLignes() {
+            return lignes.sum();
+        }
+
+        public long getCaracteres() {
+            return caracteres.sum();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.filelist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classe répartissant le scan d'un répertoire entre plusieurs processus. Chaque élément de premier
+ * niveau est une partie : les dossiers sont scannés par des processus {@link ShardWorker} lancés avec
+ * le même classpath, les autres éléments (fichiers, liens) dans le processus courant.
+ *
+ * Les tailles sont identiques à celles d'un scan en un seul processus : un fichier physique atteint par
+ * plusieurs liens n'est compté que pour le premier lien dans l'ordre de ce scan (fichiers listés de
+ * toutes les parties dans l'ordre du répertoire, puis contenu des dossiers). Chaque partie renvoie les
+ * fichiers physiques qu'elle a comptés ; une partie qui en a compté un déjà compté par une partie
+ * précédente est scannée une seconde fois en excluant ces fichiers.
+ *
+ * Avec une limite de débit des lectures, la limite est partagée à parts égales entre les processus de scan
+ * démarrés et le processus courant (qui scanne les autres éléments, et les parties d'un processus défaillant
+ * sur la part de ce processus) : le débit total ne dépasse pas la limite.
+ *
+ * Limites de coût : chaque processus construit en mémoire le résultat complet de sa partie (fichiers
+ * et dossiers listés, identifiants physiques comptés) avant de l'envoyer, et le coordinateur conserve
+ * les résultats de toutes les parties jusqu'à la fusion ; la mémoire nécessaire est donc celle d'un scan
+ * en un seul processus, répartie entre les processus puis réunie ici. Le second scan n'est pas
+ * incrémental : une partie ayant un seul lien physique en commun avec une partie précédente est
+ * entièrement rescannée, si bien qu'une arborescence où les liens physiques entre dossiers de premier
+ * niveau sont nombreux (copies de sauvegarde par liens physiques, par exemple) est lue environ deux fois.
+ * Pour ces arborescences, un scan en un seul processus est préférable.
+ */
+public class ShardCoordinator {
+    private final FileScanner modele;
+    private final int nombreProcessus;
+    private double debitParPart;
+    private IoThrottle limiteurLocal;
+
+    /**
+     * @param modele Le scanner dont les options sont reprises pour chaque partie
+     * @param nombreProcessus Le nombre de processus de scan simultanés
+     */
+    public ShardCoordinator(FileScanner modele, int nombreProcessus) {
+        if (nombreProcessus < 1) {
+            throw new IllegalArgumentException("Le nombre de processus doit être au moins 1");
+        }
+        this.modele = modele;
+        this.nombreProcessus = nombreProcessus;
+    }
+
+    /**
+     * Scanne le répertoire en répartissant ses dossiers de premier niveau entre les processus
+     * @return Le résultat fusionné (fichiers listés, dossiers listés, statistiques)
+     */
+    public ShardResult scanner(Path repertoire, int profondeurMax) throws IOException {
+        List<Path> parties = new ArrayList<>();
+        List<Boolean> dossiers = new ArrayList<>();
+        try (DirectoryStream<Path> flux = Files.newDirectoryStream(repertoire)) {
+            // Même ordre que le parcours d'un scan en un seul processus
+            for (Path partie : flux) {
+                parties.add(partie);
+                dossiers.add(estDossier(partie));
+            }
+        } catch (DirectoryIteratorException e) {
+            throw new IOException("Erreur lors du scan du répertoire : " + e.getCause().getMessage(), e.getCause());
+        }
+
+        long nombreDossiers = dossiers.stream().filter(dossier -> dossier).count();
+        List<Processus> processus = new ArrayList<>();
+        for (int i = 0; i < Math.min(nombreProcessus, nombreDossiers); i++) {
+            processus.add(new Processus());
+        }
+        // Limite de débit partagée entre les processus démarrés et le processus courant
+        IoThrottle limiteur = modele.getLimiteur();
+        limiteurLocal = limiteur;
+        debitParPart = 0;
+        if (limiteur != null && !processus.isEmpty()) {
+            debitParPart = limiteur.getDebitMax() / (processus.size() + 1);
+            limiteurLocal = new IoThrottle(debitParPart, limiteur.getLatenceMax());
+        }
+        ExecutorService executeur = Executors.newFixedThreadPool(Math.max(1, processus.size()));
+        try {
+            BlockingQueue<Processus> libres = new LinkedBlockingQueue<>(processus);
+            boolean avecCles = modele.dedoublonneLiens();
+            FileKeySet[] prealables = new FileKeySet[parties.size()];
+            boolean[] aScanner = new boolean[parties.size()];
+            Arrays.fill(aScanner, true);
+            List<ShardResult> resultats = executer(repertoire, parties, dossiers, profondeurMax, aScanner, prealables,
+                avecCles, executeur, libres);
+            if (!avecCles) {
+                return ShardResult.fusionner(resultats);
+            }
+
+            // Premier lien de chaque fichier physique : d'abord les fichiers listés, dans l'ordre des parties,
+            // puis le contenu des dossiers. Les fichiers comptés par une partie après un lien antérieur
+            // d'une autre partie lui sont fournis pour un second scan.
+            FileKeySet comptees = new FileKeySet();
+            for (int i = 0; i < parties.size(); i++) {
+                prealables[i] = comptees.ajouterTout(resultats.get(i).getClesEtape1(), null);
+            }
+            boolean aRescanner = false;
+            for (int i = 0; i < parties.size(); i++) {
+                ShardResult resultat = resultats.get(i);
+                prealables[i].ajouterTout(comptees.ajouterTout(resultat.getCles(), resultat.getClesEtape1()), null);
+                aScanner[i] = prealables[i].taille() > 0;
+                aRescanner |= aScanner[i];
+            }
+            if (aRescanner) {
+                List<ShardResult> corriges = executer(repertoire, parties, dossiers, profondeurMax, aScanner, prealables,
+                    false, executeur, libres);
+                for (int i = 0; i < parties.size(); i++) {
+                    if (aScanner[i]) {
+                        resultats.set(i, corriges.get(i));
+                    }
+                }
+            }
+            return ShardResult.fusionner(resultats);
+        } finally {
+            executeur.shutdownNow();
+            for (Processus unProcessus : processus) {
+                unProcessus.fermer();
+            }
+            if (limiteurLocal != limiteur) {
+                System.err.println("Processus principal - " + limiteurLocal.resume());
+            }
+        }
+    }
+
+    /**
+     * @return Un scanner avec les options du modèle et la limite de débit donnée
+     */
+    private FileScanner scannerLocal(IoThrottle limiteur) {
+        FileScanner scanner = modele.copierOptions();
+        scanner.setLimiteur(limiteur);
+        return scanner;
+    }
+
+    /**
+     * Scanne les parties demandées : les dossiers dans les processus de scan, les autres éléments ici
+     * @param aScanner Les parties à scanner
+     * @param prealables Les fichiers physiques à ne pas compter, par partie (null si aucun)
+     * @return Les résultats dans l'ordre des parties (null pour les parties non scannées)
+     */
+    private List<ShardResult> executer(Path repertoire, List<Path> parties, List<Boolean> dossiers, int profondeurMax,
+                                       boolean[] aScanner, FileKeySet[] prealables, boolean avecCles,
+                                       ExecutorService executeur, BlockingQueue<Processus> libres) throws IOException {
+        List<Future<ShardResult>> futurs = new ArrayList<>();
+        for (int i = 0; i < parties.size(); i++) {
+            Path partie = parties.get(i);
+            FileKeySet cles = prealables[i];
+            if (aScanner[i] && dossiers.get(i)) {
+                futurs.add(executeur.submit(() -> {
+                    Processus unProcessus = libres.take();
+                    try {
+                        return unProcessus.scanner(repertoire, partie, profondeurMax, cles, avecCles);
+                    } finally {
+                        libres.put(unProcessus);
+                    }
+                }));
+            } else {
+                futurs.add(null);
+            }
+        }
+
+        // Les autres éléments sont scannés pendant que les processus travaillent
+        List<ShardResult> resultats = new ArrayList<>();
+        for (int i = 0; i < parties.size(); i++) {
+            boolean local = aScanner[i] && futurs.get(i) == null;
+            resultats.add(local ? scannerLocal(limiteurLocal).scannerPartie(repertoire, parties.get(i), profondeurMax,
+                prealables[i], avecCles) : null);
+        }
+        for (int i = 0; i < parties.size(); i++) {
+            if (futurs.get(i) != null) {
+                try {
+                    resultats.set(i, futurs.get(i).get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Scan interrompu", e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof IOException ? (IOException) cause : new IOException(cause.getMessage(), cause);
+                }
+            }
+        }
+        return resultats;
+    }
+
+    /**
+     * Indique si l'élément est un dossier (et non un lien vers un dossier, qui n'est pas parcouru).
+     * Appelé avant le démarrage des processus de scan : la limite de débit n'est pas encore partagée
+     */
+    private boolean estDossier(Path partie) {
+        try {
+            IoThrottle limiteur = modele.getLimiteur();
+            BasicFileAttributes attrs = limiteur != null
+                ? limiteur.executer(() -> Files.readAttributes(partie, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS))
+                : Files.readAttributes(partie, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            return attrs.isDirectory();
+        } catch (IOException e) {
+            return false; // Scanné localement, avec le traitement d'erreur habituel
+        }
+    }
+
+    /**
+     * Processus de scan, lancé à la première demande. En cas de défaillance (processus arrêté, protocole
+     * invalide), les parties qui lui sont confiées sont scannées dans le processus courant.
+     */
+    private final class Processus {
+        private Process processus;
+        private DataInputStream entree;
+        private DataOutputStream sortie;
+        private boolean defaillant;
+        private IoThrottle limiteurSecours;
+
+        ShardResult scanner(Path repertoire, Path partie, int profondeurMax, FileKeySet prealables,
+                            boolean avecCles) throws IOException {
+            if (!defaillant) {
+                try {
+                    demarrer();
+                    ShardWorker.ecrireDemande(sortie, repertoire, partie, profondeurMax, modele, debitParPart,
+                        prealables, avecCles);
+                    sortie.flush();
+                    ShardResult resultat = ShardWorker.lireReponse(entree, partie);
+                    if (resultat != null) {
+                        return resultat;
+                    }
+                } catch (IOException e) {
+                    defaillant = true;
+                    System.err.println("Erreur de communication avec le processus de scan ("
+                        + (e.getMessage() != null ? e.getMessage() : "processus arrêté")
+                        + ") : ses parties sont scannées dans le processus principal");
+                }
+            }
+            // Parties scannées ici sur la part de débit du processus défaillant
+            if (limiteurSecours == null && modele.getLimiteur() != null) {
+                limiteurSecours = new IoThrottle(debitParPart, modele.getLimiteur().getLatenceMax());
+            }
+            return scannerLocal(limiteurSecours).scannerPartie(repertoire, partie, profondeurMax, prealables, avecCles);
+        }
+
+        private void demarrer() throws IOException {
+            if (processus != null) {
+                return;
+            }
+            String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            processus = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), ShardWorker.class.getName())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+            entree = new DataInputStream(new BufferedInputStream(processus.getInputStream(), 1 << 16));
+            sortie = new DataOutputStream(new BufferedOutputStream(processus.getOutputStream(), 1 << 16));
+            if (entree.readInt() != ShardWorker.SIGNATURE || entree.readInt() != ShardWorker.VERSION) {
+                throw new IOException("protocole du processus de scan inconnu");
+            }
+        }
+
+        /**
+         * Termine le processus (fin de son flux d'entrée)
+         */
+        void fermer() {
+            if (processus == null) {
+                return;
+            }
+            try {
+                sortie.close();
+                if (!processus.waitFor(10, TimeUnit.SECONDS)) {
+                    processus.destroy();
+                }
+            } catch (IOException e) {
+                processus.destroy();
+            } catch (InterruptedException e) {
+                processus.destroy();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
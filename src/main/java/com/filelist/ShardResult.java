@@ -0,0 +1,140 @@
+package com.filelist;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classe représentant le résultat du scan d'une partie de l'arborescence (un élément de premier niveau
+ * et son contenu) : fichiers listés, dossiers listés avec leur taille, statistiques, et fichiers
+ * physiques comptés pour résoudre les liens physiques entre parties.
+ */
+public class ShardResult {
+    private final List<FileInfo> fichiers;
+    private final List<FileInfo> dossiers;
+    private final ScanStatistics statistiques;
+    private final long nombreDoublons;
+    private final long nombreBoucles;
+    private final FileKeySet clesEtape1;
+    private final FileKeySet cles;
+
+    /**
+     * @param fichiers Les fichiers listés, dans l'ordre du parcours
+     * @param dossiers Les dossiers listés avec leur taille, dans l'ordre du parcours
+     * @param clesEtape1 Les fichiers physiques comptés lors du listage (null si non demandés)
+     * @param cles Tous les fichiers physiques comptés (null si non demandés)
+     */
+    public ShardResult(List<FileInfo> fichiers, List<FileInfo> dossiers, ScanStatistics statistiques,
+                       long nombreDoublons, long nombreBoucles, FileKeySet clesEtape1, FileKeySet cles) {
+        this.fichiers = fichiers;
+        this.dossiers = dossiers;
+        this.statistiques = statistiques;
+        this.nombreDoublons = nombreDoublons;
+        this.nombreBoucles = nombreBoucles;
+        this.clesEtape1 = clesEtape1;
+        this.cles = cles;
+    }
+
+    /**
+     * Fusionne les résultats des parties, dans l'ordre des parties : les fichiers de toutes les parties
+     * puis leurs dossiers, comme dans un scan en un seul parcours
+     */
+    public static ShardResult fusionner(List<ShardResult> parties) {
+        List<FileInfo> fichiers = new ArrayList<>();
+        List<FileInfo> dossiers = new ArrayList<>();
+        ScanStatistics statistiques = new ScanStatistics();
+        long nombreDoublons = 0;
+        long nombreBoucles = 0;
+        for (ShardResult partie : parties) {
+            fichiers.addAll(partie.fichiers);
+            dossiers.addAll(partie.dossiers);
+            statistiques.ajouter(partie.statistiques);
+            nombreDoublons += partie.nombreDoublons;
+            nombreBoucles += partie.nombreBoucles;
+        }
+        return new ShardResult(fichiers, dossiers, statistiques, nombreDoublons, nombreBoucles, null, null);
+    }
+
+    public void ecrire(DataOutput sortie) throws IOException {
+        ecrire(sortie, fichiers);
+        ecrire(sortie, dossiers);
+        statistiques.ecrire(sortie);
+        sortie.writeLong(nombreDoublons);
+        sortie.writeLong(nombreBoucles);
+        sortie.writeBoolean(cles != null);
+        if (cles != null) {
+            clesEtape1.ecrire(sortie);
+            cles.ecrire(sortie);
+        }
+    }
+
+    /**
+     * Relit un résultat écrit par {@link #ecrire(DataOutput)}
+     */
+    public static ShardResult lire(DataInput entree) throws IOException {
+        List<FileInfo> fichiers = lireListe(entree);
+        List<FileInfo> dossiers = lireListe(entree);
+        ScanStatistics statistiques = ScanStatistics.lire(entree);
+        long nombreDoublons = entree.readLong();
+        long nombreBoucles = entree.readLong();
+        FileKeySet clesEtape1 = null;
+        FileKeySet cles = null;
+        if (entree.readBoolean()) {
+            clesEtape1 = FileKeySet.lire(entree);
+            cles = FileKeySet.lire(entree);
+        }
+        return new ShardResult(fichiers, dossiers, statistiques, nombreDoublons, nombreBoucles, clesEtape1, cles);
+    }
+
+    private static void ecrire(DataOutput sortie, List<FileInfo> infos) throws IOException {
+        sortie.writeInt(infos.size());
+        for (FileInfo info : infos) {
+            info.ecrire(sortie);
+        }
+    }
+
+    private static List<FileInfo> lireListe(DataInput entree) throws IOException {
+        int nombre = entree.readInt();
+        List<FileInfo> infos = new ArrayList<>(nombre);
+        for (int i = 0; i < nombre; i++) {
+            infos.add(FileInfo.lire(entree));
+        }
+        return infos;
+    }
+
+    public List<FileInfo> getFichiers() {
+        return fichiers;
+    }
+
+    public List<FileInfo> getDossiers() {
+        return dossiers;
+    }
+
+    public ScanStatistics getStatistiques() {
+        return statistiques;
+    }
+
+    public long getNombreDoublons() {
+        return nombreDoublons;
+    }
+
+    public long getNombreBoucles() {
+        return nombreBoucles;
+    }
+
+    /**
+     * @return Les fichiers physiques comptés lors du listage (profondeur maximale), ou null
+     */
+    public FileKeySet getClesEtape1() {
+        return clesEtape1;
+    }
+
+    /**
+     * @return Tous les fichiers physiques comptés, ou null
+     */
+    public FileKeySet getCles() {
+        return cles;
+    }
+}
@@ -0,0 +1,133 @@
+package com.filelist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Processus de scan d'un scan réparti : scanne les parties demandées par le coordinateur
+ * ({@link ShardCoordinator}) et lui renvoie leur résultat.
+ *
+ * Protocole binaire sur un flux (entrée et sortie standard, ou connexion réseau) : le processus envoie
+ * une signature, puis répond à chaque demande par un indicateur de succès suivi du résultat
+ * ({@link ShardResult}) ou du message d'erreur. La fin du flux d'entrée termine le processus.
+ *
+ * Le résultat d'une partie est entièrement construit en mémoire avant d'être envoyé (voir les limites
+ * de coût décrites dans {@link ShardCoordinator}).
+ */
+public class ShardWorker {
+    static final int SIGNATURE = 0x464C5348; // "FLSH"
+    static final int VERSION = 3;
+
+    public static void main(String[] args) {
+        // La sortie standard est réservée au protocole
+        PrintStream protocole = System.out;
+        System.setOut(System.err);
+        DataInputStream entree = new DataInputStream(new BufferedInputStream(System.in, 1 << 16));
+        DataOutputStream sortie = new DataOutputStream(new BufferedOutputStream(protocole, 1 << 16));
+        try {
+            traiter(entree, sortie);
+        } catch (IOException e) {
+            System.err.println("Erreur du processus de scan : " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Traite les demandes jusqu'à la fin du flux d'entrée
+     */
+    public static void traiter(DataInputStream entree, DataOutputStream sortie) throws IOException {
+        sortie.writeInt(SIGNATURE);
+        sortie.writeInt(VERSION);
+        sortie.flush();
+        IoThrottle limiteur = null;
+        while (true) {
+            String repertoire;
+            try {
+                repertoire = entree.readUTF();
+            } catch (EOFException e) {
+                if (limiteur != null) {
+                    System.err.println("Processus de scan " + ProcessHandle.current().pid() + " - " + limiteur.resume());
+                }
+                return;
+            }
+            Path partie = Paths.get(entree.readUTF());
+            int profondeurMax = entree.readInt();
+            boolean dedoublonnerLiens = entree.readBoolean();
+            boolean conserverFichiers = entree.readBoolean();
+            double debitIo = entree.readDouble();
+            long latenceIo = entree.readLong();
+            boolean avecCles = entree.readBoolean();
+            FileKeySet clesPrealables = entree.readBoolean() ? FileKeySet.lire(entree) : null;
+            ScanFilter filtre = entree.readBoolean() ? ScanFilter.lire(entree) : null;
+
+            // Un seul limiteur pour toutes les parties scannées par le processus
+            if (debitIo > 0 && limiteur == null) {
+                limiteur = new IoThrottle(debitIo, Duration.ofMillis(latenceIo));
+            }
+            FileScanner scanner = new FileScanner();
+            scanner.setDedoublonnerLiens(dedoublonnerLiens);
+            scanner.setConserverFichiers(conserverFichiers);
+            scanner.setLimiteur(limiteur);
+            scanner.setFiltre(filtre);
+            ShardResult resultat;
+            try {
+                resultat = scanner.scannerPartie(Paths.get(repertoire), partie, profondeurMax, clesPrealables, avecCles);
+            } catch (IOException | RuntimeException e) {
+                sortie.writeBoolean(false);
+                sortie.writeUTF(String.valueOf(e.getMessage()));
+                sortie.flush();
+                continue;
+            }
+            sortie.writeBoolean(true);
+            resultat.ecrire(sortie);
+            sortie.flush();
+        }
+    }
+
+    /**
+     * Écrit une demande de scan d'une partie
+     * @param modele Le scanner dont les options sont reprises
+     * @param debitIo Le débit de lectures autorisé au processus (0 = illimité)
+     */
+    static void ecrireDemande(DataOutput sortie, Path repertoire, Path partie, int profondeurMax, FileScanner modele,
+                              double debitIo, FileKeySet clesPrealables, boolean avecCles) throws IOException {
+        sortie.writeUTF(repertoire.toString());
+        sortie.writeUTF(partie.toString());
+        sortie.writeInt(profondeurMax);
+        sortie.writeBoolean(modele.dedoublonneLiens());
+        sortie.writeBoolean(modele.conserveFichiers());
+        sortie.writeDouble(debitIo);
+        sortie.writeLong(modele.getLimiteur() != null ? modele.getLimiteur().getLatenceMax().toMillis() : 0);
+        sortie.writeBoolean(avecCles);
+        sortie.writeBoolean(clesPrealables != null);
+        if (clesPrealables != null) {
+            clesPrealables.ecrire(sortie);
+        }
+        sortie.writeBoolean(modele.getFiltre() != null);
+        if (modele.getFiltre() != null) {
+            modele.getFiltre().ecrire(sortie);
+        }
+    }
+
+    /**
+     * Lit la réponse à une demande
+     * @return Le résultat, ou null si le scan de la partie a échoué dans le processus
+     */
+    static ShardResult lireReponse(DataInput entree, Path partie) throws IOException {
+        if (!entree.readBoolean()) {
+            System.err.println("Erreur du processus de scan pour " + partie + ": " + entree.readUTF());
+            return null;
+        }
+        return ShardResult.lire(entree);
+    }
+}
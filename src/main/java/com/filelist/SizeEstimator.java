@@ -0,0 +1,375 @@
+package com.filelist;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Classe pour estimer la taille des dossiers par échantillonnage des sous-dossiers,
+ * dans un budget de temps et de lectures de dossiers.
+ *
+ * Chaque dossier est lu une fois (fichiers directs comptés exactement) ; ses sous-dossiers
+ * non listés sont explorés dans un ordre aléatoire, ce qui en fait un échantillon aléatoire
+ * simple. La taille des sous-dossiers non explorés est extrapolée à partir de la moyenne de
+ * l'échantillon, avec une variance tenant compte de l'échantillonnage et de l'incertitude
+ * des sous-dossiers eux-mêmes. Tant que le budget le permet, l'estimation est affinée en
+ * explorant en priorité les dossiers les plus incertains ; elle devient exacte lorsque tout
+ * a été exploré.
+ */
+public class SizeEstimator {
+    private static final double Z_95 = 1.96;
+
+    private final int profondeurMax;
+    private final BiPredicate<Path, BasicFileAttributes> fichierIgnore;
+    private final Predicate<Path> dossierInutile;
+    private final Random aleatoire = new Random(42);
+    private long lectures;
+    private IoThrottle limiteur = null;
+
+    /**
+     * @param profondeurMax La profondeur maximale du scan (les éléments jusqu'à cette profondeur sont listés individuellement)
+     * @param fichierIgnore Prédicat des fichiers ignorés (fichiers inutiles, fichiers refusés par un filtre)
+     * @param dossierInutile Prédicat des dossiers non listés
+     */
+    public SizeEstimator(int profondeurMax, BiPredicate<Path, BasicFileAttributes> fichierIgnore,
+                         Predicate<Path> dossierInutile) {
+        this.profondeurMax = profondeurMax;
+        this.fichierIgnore = fichierIgnore;
+        this.dossierInutile = dossierInutile;
+    }
+
+    /**
+     * Limite le débit des lectures de métadonnées (attributs, contenu des dossiers)
+     * @param limiteur Le limiteur de débit (null pour ne pas limiter)
+     */
+    public void setLimiteur(IoThrottle limiteur) {
+        this.limiteur = limiteur;
+    }
+
+    /**
+     * Estime la taille et le nombre de fichiers de chaque dossier listé
+     * @param racine Le répertoire racine du scan
+     * @param dossiers Les dossiers listés
+     * @param budget Le temps alloué à l'estimation
+     * @param lecturesMax Le nombre maximal de dossiers lus (0 = illimité)
+     */
+    public Map<Path, EstimationTaille> estimer(Path racine, List<Path> dossiers, Duration budget, long lecturesMax) {
+        long echeance = System.nanoTime() + budget.toNanos();
+        lectures = 0;
+        Map<Path, Noeud> noeuds = new HashMap<>();
+        PriorityQueue<Noeud> aAffiner = new PriorityQueue<>(
+            Comparator.comparingDouble((Noeud n) -> n.varTaille).reversed());
+
+        // Étape 1 : lire chaque dossier listé (fichiers directs exacts, sous-dossiers à échantillonner)
+        for (Path dossier : dossiers) {
+            if (budgetEpuise(echeance, lecturesMax)) {
+                break;
+            }
+            Noeud noeud = new Noeud(dossier, racine.relativize(dossier).getNameCount());
+            if (!estLienSymbolique(dossier)) {
+                // Comme pour le calcul exact, un lien vers un dossier n'est pas suivi
+                noeud.lister();
+            }
+            noeuds.put(dossier, noeud);
+            if (!noeud.estComplet()) {
+                aAffiner.add(noeud);
+            }
+        }
+
+        // Étape 2 : affiner progressivement, en priorité les dossiers les plus incertains
+        while (!aAffiner.isEmpty() && !budgetEpuise(echeance, lecturesMax)) {
+            Noeud noeud = aAffiner.poll();
+            noeud.affiner();
+            if (!noeud.estComplet()) {
+                aAffiner.add(noeud);
+            }
+        }
+
+        Map<Path, EstimationTaille> estimations = new HashMap<>();
+        for (Path dossier : dossiers) {
+            Noeud noeud = noeuds.get(dossier);
+            // Dossier non lu avant la fin du budget : aucune valeur, pas même approchée
+            estimations.put(dossier, noeud != null ? noeud.estimation() : EstimationTaille.nonAtteinte());
+        }
+        return estimations;
+    }
+
+    /**
+     * @return Le nombre de dossiers lus lors de la dernière estimation
+     */
+    public long getLectures() {
+        return lectures;
+    }
+
+    private boolean budgetEpuise(long echeance, long lecturesMax) {
+        return System.nanoTime() >= echeance || (lecturesMax > 0 && lectures >= lecturesMax);
+    }
+
+    /**
+     * Exécute une lecture de métadonnées, limitée si un limiteur est défini
+     */
+    private <T> T executer(IoThrottle.OperationIo<T> operation) throws IOException {
+        return limiteur != null ? limiteur.executer(operation) : operation.executer();
+    }
+
+    private boolean estLienSymbolique(Path chemin) {
+        try {
+            return executer(() -> Files.readAttributes(chemin, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS))
+                .isSymbolicLink();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long borneMin(double estimation, double variance, long observe) {
+        if (Double.isInfinite(variance)) {
+            return observe;
+        }
+        return Math.max(observe, Math.round(estimation - Z_95 * Math.sqrt(variance)));
+    }
+
+    private static long borneMax(double estimation, double variance) {
+        if (Double.isInfinite(variance)) {
+            return EstimationTaille.INCONNUE;
+        }
+        return Math.round(estimation + Z_95 * Math.sqrt(variance));
+    }
+
+    /**
+     * Variance de l'extrapolation d'un total à partir d'un échantillon de k valeurs parmi n
+     * (avec correction pour population finie)
+     */
+    private static double varianceEchantillon(int n, int k, double somme, double sommeCarres) {
+        double s2 = Math.max(0, (sommeCarres - somme * somme / k) / (k - 1));
+        return (double) n * n * (1 - (double) k / n) * s2 / k;
+    }
+
+    /**
+     * Dossier en cours d'estimation (le sous-arbre non listé qu'il contient)
+     */
+    private final class Noeud {
+        private final Path chemin;
+        private final int profondeur;
+        private long tailleConnue;
+        private long nombreConnu;
+        private List<Path> sousDossiers = Collections.emptyList();
+        private List<Noeud> explores = new ArrayList<>();
+        private int nombreExplores;
+        private int incomplets;
+        private int incertains;
+
+        // Agrégats des sous-dossiers explorés
+        private double sommeTaille;
+        private double sommeTailleCarres;
+        private double sommeVarTaille;
+        private double sommeNombre;
+        private double sommeNombreCarres;
+        private double sommeVarNombre;
+        private long observeTaille;
+        private long observeNombre;
+
+        // Estimation courante
+        private double taille;
+        private double varTaille;
+        private double nombre;
+        private double varNombre;
+
+        Noeud(Path chemin, int profondeur) {
+            this.chemin = chemin;
+            this.profondeur = profondeur;
+        }
+
+        /**
+         * Lit le contenu direct du dossier (une lecture de dossier)
+         */
+        void lister() {
+            lectures++;
+            List<Path> aExplorer = new ArrayList<>();
+            int profondeurEnfant = profondeur + 1;
+            try (DirectoryStream<Path> flux = executer(() -> Files.newDirectoryStream(chemin))) {
+                for (Path enfant : flux) {
+                    try {
+                        BasicFileAttributes attrs = executer(() -> Files.readAttributes(enfant, BasicFileAttributes.class,
+                            LinkOption.NOFOLLOW_LINKS));
+                        if (attrs.isSymbolicLink()) {
+                            // Les liens vers des fichiers sont comptés, les liens vers des dossiers ne sont pas suivis
+                            attrs = executer(() -> Files.readAttributes(enfant, BasicFileAttributes.class));
+                            if (!attrs.isRegularFile()) {
+                                continue;
+                            }
+                        }
+                        if (attrs.isRegularFile()) {
+                            // Les fichiers jusqu'à la profondeur maximale sont listés individuellement
+                            if (profondeurEnfant > profondeurMax && !fichierIgnore.test(enfant, attrs)) {
+                                tailleConnue += attrs.size();
+                                nombreConnu++;
+                            }
+                        } else if (attrs.isDirectory()) {
+                            // Les dossiers listés ont leur propre taille et ne sont pas comptés ici
+                            boolean liste = profondeurEnfant <= profondeurMax && !dossierInutile.test(enfant);
+                            if (!liste) {
+                                aExplorer.add(enfant);
+                            }
+                        }
+                    } catch (IOException e) {
+                        // Ignorer les fichiers qui ne peuvent pas être lus
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                System.err.println("Erreur lors de la lecture de " + chemin + ": " + e.getMessage());
+            }
+
+            // Un ordre aléatoire fait de chaque préfixe exploré un échantillon aléatoire simple
+            Collections.shuffle(aExplorer, aleatoire);
+            sousDossiers = aExplorer;
+            observeTaille = tailleConnue;
+            observeNombre = nombreConnu;
+            recalculer();
+        }
+
+        boolean estComplet() {
+            return nombreExplores == sousDossiers.size() && incomplets == 0;
+        }
+
+        /**
+         * Affine l'estimation d'une lecture de dossier supplémentaire : soit en explorant un
+         * nouveau sous-dossier (réduit l'erreur d'échantillonnage), soit en affinant le
+         * sous-dossier exploré le plus incertain (réduit l'erreur propagée)
+         */
+        void affiner() {
+            int n = sousDossiers.size();
+            if (nombreExplores < n && (nombreExplores < 2 || termeEchantillonnage() >= termePropage())) {
+                explorerSuivant();
+            } else {
+                Noeud pire = null;
+                for (Noeud enfant : explores) {
+                    if (!enfant.estComplet() && (pire == null || enfant.varTaille > pire.varTaille)) {
+                        pire = enfant;
+                    }
+                }
+                if (pire == null) {
+                    explorerSuivant();
+                } else {
+                    retirer(pire);
+                    pire.affiner();
+                    ajouter(pire);
+                    if (pire.estComplet()) {
+                        incomplets--;
+                    }
+                }
+            }
+            recalculer();
+        }
+
+        private void explorerSuivant() {
+            Noeud enfant = new Noeud(sousDossiers.get(nombreExplores), profondeur + 1);
+            enfant.lister();
+            explores.add(enfant);
+            nombreExplores++;
+            ajouter(enfant);
+            if (!enfant.estComplet()) {
+                incomplets++;
+            }
+        }
+
+        private void ajouter(Noeud enfant) {
+            sommeTaille += enfant.taille;
+            sommeTailleCarres += enfant.taille * enfant.taille;
+            sommeNombre += enfant.nombre;
+            sommeNombreCarres += enfant.nombre * enfant.nombre;
+            if (Double.isInfinite(enfant.varTaille)) {
+                incertains++;
+            } else {
+                sommeVarTaille += enfant.varTaille;
+                sommeVarNombre += enfant.varNombre;
+            }
+            observeTaille += enfant.observeTaille;
+            observeNombre += enfant.observeNombre;
+        }
+
+        private void retirer(Noeud enfant) {
+            sommeTaille -= enfant.taille;
+            sommeTailleCarres -= enfant.taille * enfant.taille;
+            sommeNombre -= enfant.nombre;
+            sommeNombreCarres -= enfant.nombre * enfant.nombre;
+            if (Double.isInfinite(enfant.varTaille)) {
+                incertains--;
+            } else {
+                sommeVarTaille -= enfant.varTaille;
+                sommeVarNombre -= enfant.varNombre;
+            }
+            observeTaille -= enfant.observeTaille;
+            observeNombre -= enfant.observeNombre;
+        }
+
+        private double termeEchantillonnage() {
+            return varianceEchantillon(sousDossiers.size(), nombreExplores, sommeTaille, sommeTailleCarres);
+        }
+
+        private double termePropage() {
+            if (incertains > 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double facteur = (double) sousDossiers.size() / nombreExplores;
+            return facteur * facteur * sommeVarTaille;
+        }
+
+        private void recalculer() {
+            int n = sousDossiers.size();
+            int k = nombreExplores;
+            if (k == n) {
+                taille = tailleConnue + sommeTaille;
+                nombre = nombreConnu + sommeNombre;
+                varTaille = incertains > 0 ? Double.POSITIVE_INFINITY : sommeVarTaille;
+                varNombre = incertains > 0 ? Double.POSITIVE_INFINITY : sommeVarNombre;
+                if (incomplets == 0) {
+                    // Dossier entièrement exploré : les sous-dossiers ne sont plus nécessaires
+                    explores = Collections.emptyList();
+                    sousDossiers = Collections.emptyList();
+                    nombreExplores = 0;
+                }
+            } else if (k < 2) {
+                // Pas assez d'échantillons pour estimer la dispersion
+                taille = tailleConnue + (double) n * sommeTaille;
+                nombre = nombreConnu + (double) n * sommeNombre;
+                varTaille = Double.POSITIVE_INFINITY;
+                varNombre = Double.POSITIVE_INFINITY;
+            } else {
+                double facteur = (double) n / k;
+                taille = tailleConnue + facteur * sommeTaille;
+                nombre = nombreConnu + facteur * sommeNombre;
+                if (incertains > 0) {
+                    varTaille = Double.POSITIVE_INFINITY;
+                    varNombre = Double.POSITIVE_INFINITY;
+                } else {
+                    varTaille = varianceEchantillon(n, k, sommeTaille, sommeTailleCarres)
+                        + facteur * facteur * sommeVarTaille;
+                    varNombre = varianceEchantillon(n, k, sommeNombre, sommeNombreCarres)
+                        + facteur * facteur * sommeVarNombre;
+                }
+            }
+        }
+
+        EstimationTaille estimation() {
+            return new EstimationTaille(
+                Math.round(taille), borneMin(taille, varTaille, observeTaille), borneMax(taille, varTaille),
+                Math.round(nombre), borneMin(nombre, varNombre, observeNombre), borneMax(nombre, varNombre),
+                estComplet());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.filelist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests des noms d'entrées d'archives : les chemins absolus, lettres de lecteur et ".." sont ramenés
+ * à un chemin relatif à l'archive, et une entrée qui en sortirait est ignorée.
+ */
+class ArchiveInspectorTest {
+    private static final String[] NOMS = {
+        "simple.txt", "dossier/./sous/../doc.pdf", "/absolu/a.txt", "C:\\Windows\\b.ini", "d:relatif.txt",
+        "\\\\serveur\\partage\\c.txt", "../../etc/passwd", "a/../../sortie.txt", "/..", "./"
+    };
+    private static final List<String> ATTENDUS = List.of(
+        "simple.txt", "dossier/doc.pdf", "absolu/a.txt", "Windows/b.ini", "relatif.txt", "serveur/partage/c.txt");
+
+    @TempDir
+    Path dossierTemporaire;
+
+    @Test
+    void normalisationDesNoms() {
+        for (int i = 0; i < ATTENDUS.size(); i++) {
+            assertEquals(ATTENDUS.get(i), ArchiveInspector.normaliserNomEntree(NOMS[i]), NOMS[i]);
+        }
+        for (int i = ATTENDUS.size(); i < NOMS.length; i++) {
+            assertNull(ArchiveInspector.normaliserNomEntree(NOMS[i]), NOMS[i]);
+        }
+    }
+
+    @Test
+    void entreesDUneArchiveZip() throws IOException {
+        Path archive = dossierTemporaire.resolve("noms.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive))) {
+            for (String nom : NOMS) {
+                zip.putNextEntry(new ZipEntry(nom));
+                zip.write(nom.getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            // Dossier noté avec le séparateur Windows : pas une entrée de fichier
+            zip.putNextEntry(new ZipEntry("dossier\\"));
+            zip.closeEntry();
+        }
+        verifierEntrees(archive);
+    }
+
+    @Test
+    void entreesDUneArchiveTar() throws IOException {
+        Path archive = dossierTemporaire.resolve("noms.tar");
+        try (OutputStream tar = Files.newOutputStream(archive)) {
+            for (String nom : NOMS) {
+                tar.write(enTeteTar(nom, 0));
+            }
+            tar.write(new byte[2 * 512]);
+        }
+        verifierEntrees(archive);
+    }
+
+    private static void verifierEntrees(Path archive) throws IOException {
+        List<String> noms = new ArrayList<>();
+        for (FileInfo entree : new ArchiveInspector().listerEntrees(archive)) {
+            noms.add(entree.getNom());
+            // Le chemin de l'entrée reste sous l'archive
+            assertEquals(archive.resolve(entree.getNom()), entree.getCheminComplet());
+        }
+        assertEquals(ATTENDUS, noms);
+    }
+
+    /**
+     * @return Un en-tête TAR ustar de fichier ordinaire
+     */
+    private static byte[] enTeteTar(String nom, long taille) {
+        byte[] entete = new byte[512];
+        byte[] octetsNom = nom.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(octetsNom, 0, entete, 0, octetsNom.length);
+        ecrireOctal(entete, 100, 8, 0644);
+        ecrireOctal(entete, 124, 12, taille);
+        ecrireOctal(entete, 136, 12, 0);
+        entete[156] = '0';
+        System.arraycopy("ustar\u000000".getBytes(StandardCharsets.US_ASCII), 0, entete, 257, 8);
+        for (int i = 148; i < 156; i++) {
+            entete[i] = ' ';
+        }
+        long somme = 0;
+        for (byte octet : entete) {
+            somme += octet & 0xFF;
+        }
+        ecrireOctal(entete, 148, 7, somme);
+        return entete;
+    }
+
+    private static void ecrireOctal(byte[] entete, int debut, int longueur, long valeur) {
+        byte[] octal = String.format("%0" + (longueur - 1) + "o", valeur).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(octal, 0, entete, debut, longueur - 1);
+    }
+}
@@ -0,0 +1,110 @@
+package com.filelist;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Banc d'essai de l'index des noms : construit un index synthétique (10 millions d'entrées par défaut),
+ * l'enregistre, le relit et mesure la latence de chaque type de recherche avec la limite par défaut
+ * de {@code --chercher} (100 résultats), par rapport à l'objectif d'une milliseconde.
+ *
+ * Les noms sont reproductibles (graine fixe) : mots, numéros et extensions courantes, dans 100 000 dossiers.
+ *
+ * Lancement : {@code MAVEN_OPTS=-Xmx4g mvn -q test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.filelist.FileNameIndexBenchmark [-Dexec.args="entrées requêtes"]}
+ */
+public class FileNameIndexBenchmark {
+    private static final String[] MOTS = {
+        "rapport", "photo", "facture", "sauvegarde", "projet", "notes", "image", "contrat", "budget",
+        "presentation", "source", "test", "donnees", "archive", "export", "video", "musique", "config"
+    };
+    private static final String[] EXTENSIONS = {
+        "pdf", "jpg", "png", "docx", "xlsx", "txt", "java", "py", "mp4", "mp3", "zip", "json", "xml", "csv"
+    };
+    private static final double OBJECTIF_MS = 1.0;
+    private static final int LIMITE = 100;
+
+    public static void main(String[] args) throws IOException {
+        int nombreEntrees = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int nombreRequetes = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+
+        Random aleatoire = new Random(42);
+        List<String> exemples = new ArrayList<>();
+        long debut = System.nanoTime();
+        FileNameIndex.Constructeur constructeur = new FileNameIndex.Constructeur();
+        for (int i = 0; i < nombreEntrees; i++) {
+            String nom = MOTS[aleatoire.nextInt(MOTS.length)] + "_" + MOTS[aleatoire.nextInt(MOTS.length)]
+                + "_" + aleatoire.nextInt(100_000) + "." + EXTENSIONS[aleatoire.nextInt(EXTENSIONS.length)];
+            constructeur.ajouter(nom, "/banc/d" + aleatoire.nextInt(1_000) + "/s" + aleatoire.nextInt(100));
+            if (exemples.size() < nombreRequetes && aleatoire.nextInt(Math.max(1, nombreEntrees / nombreRequetes)) == 0) {
+                exemples.add(nom);
+            }
+        }
+        FileNameIndex index = constructeur.construire();
+        constructeur = null;
+        long construction = System.nanoTime() - debut;
+
+        Path fichier = Files.createTempFile("index-benchmark", ".index");
+        debut = System.nanoTime();
+        index.ecrire(fichier);
+        long ecriture = System.nanoTime() - debut;
+        index = null;
+        debut = System.nanoTime();
+        FileNameIndex relu = FileNameIndex.lire(fichier);
+        long lecture = System.nanoTime() - debut;
+
+        System.out.printf("%d entrées : construction %.1f s, index %.1f Mo (écriture %.1f s, lecture %.1f s)%n",
+            relu.getNombreEntrees(), construction / 1e9, Files.size(fichier) / (1024.0 * 1024.0),
+            ecriture / 1e9, lecture / 1e9);
+        Files.delete(fichier);
+
+        Random tirage = new Random(7);
+        mesurer(relu, "sous-chaîne (6 caractères)", exemples, nom -> extrait(nom, 6, tirage), relu::rechercherSousChaine);
+        mesurer(relu, "sous-chaîne (3 caractères)", exemples, nom -> extrait(nom, 3, tirage), relu::rechercherSousChaine);
+        mesurer(relu, "sous-chaîne (2 caractères)", exemples, nom -> extrait(nom, 2, tirage), relu::rechercherSousChaine);
+        mesurer(relu, "sous-chaîne absente", exemples, nom -> extrait(nom, 4, tirage) + "#", relu::rechercherSousChaine);
+        mesurer(relu, "préfixe", exemples, nom -> nom.substring(0, nom.indexOf('_') + 3), relu::rechercherPrefixe);
+        mesurer(relu, "motif", exemples, nom -> "*" + extrait(nom.substring(0, nom.lastIndexOf('.')), 4, tirage) + "*"
+            + nom.substring(nom.lastIndexOf('.')), relu::rechercherMotif);
+    }
+
+    private static String extrait(String nom, int longueur, Random tirage) {
+        int debut = tirage.nextInt(nom.length() - longueur + 1);
+        return nom.substring(debut, debut + longueur);
+    }
+
+    private static void mesurer(FileNameIndex index, String type, List<String> exemples, Function<String, String> requete,
+                                Recherche recherche) {
+        List<String> requetes = new ArrayList<>();
+        for (String exemple : exemples) {
+            requetes.add(requete.apply(exemple));
+        }
+        // Préchauffage, puis mesure
+        for (String texte : requetes) {
+            recherche.executer(texte, LIMITE);
+        }
+        long[] durees = new long[requetes.size()];
+        long resultats = 0;
+        for (int i = 0; i < requetes.size(); i++) {
+            long debut = System.nanoTime();
+            resultats += recherche.executer(requetes.get(i), LIMITE).size();
+            durees[i] = System.nanoTime() - debut;
+        }
+        Arrays.sort(durees);
+        long horsObjectif = Arrays.stream(durees).filter(duree -> duree > OBJECTIF_MS * 1e6).count();
+        System.out.printf("  %-28s médiane %7.3f ms, 99e centile %7.3f ms, max %7.3f ms, %5.1f %% au-delà de %.0f ms "
+                + "(%.0f résultats en moyenne)%n",
+            type, durees[durees.length / 2] / 1e6, durees[durees.length * 99 / 100] / 1e6, durees[durees.length - 1] / 1e6,
+            100.0 * horsObjectif / durees.length, OBJECTIF_MS, (double) resultats / durees.length);
+    }
+
+    private interface Recherche {
+        List<String> executer(String texte, int limite);
+    }
+}
@@ -0,0 +1,170 @@
+package com.filelist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests de l'index des noms : chaque type de recherche est comparé à un parcours naïf de toutes les entrées,
+ * sur assez de noms pour que les listes des trigrammes aient des écarts de plusieurs octets et des points
+ * d'accès direct.
+ */
+class FileNameIndexTest {
+    private static final String[] MOTS = {"rapport", "photo", "Facture", "été", "projet", "notes", "budget", "ñandú"};
+    private static final String[] EXTENSIONS = {"pdf", "JPG", "txt", "java", "tar.gz", ""};
+
+    private static List<String[]> entrees;
+    private static FileNameIndex index;
+
+    @TempDir
+    Path dossierTemporaire;
+
+    @BeforeAll
+    static void construire() {
+        Random aleatoire = new Random(7);
+        entrees = new ArrayList<>();
+        FileNameIndex.Constructeur constructeur = new FileNameIndex.Constructeur();
+        for (int i = 0; i < 30_000; i++) {
+            String extension = EXTENSIONS[aleatoire.nextInt(EXTENSIONS.length)];
+            String nom = MOTS[aleatoire.nextInt(MOTS.length)] + "_" + aleatoire.nextInt(50_000)
+                + (extension.isEmpty() ? "" : "." + extension);
+            String dossier = aleatoire.nextInt(10) == 0 ? "" : "/d" + aleatoire.nextInt(200) + "/s" + aleatoire.nextInt(5);
+            entrees.add(new String[] {nom, dossier});
+            constructeur.ajouter(nom, dossier);
+        }
+        // Noms courts (sans trigramme) et doublons exacts dans plusieurs dossiers
+        for (String nom : new String[] {"a", "Ab", "ab", "x.c"}) {
+            for (String dossier : new String[] {"/court", "/autre"}) {
+                entrees.add(new String[] {nom, dossier});
+                constructeur.ajouter(nom, dossier);
+            }
+        }
+        index = constructeur.construire();
+    }
+
+    /**
+     * @return Les chemins des entrées dont le nom en minuscules est accepté, triés
+     */
+    private static List<String> attendus(Predicate<String> accepte) {
+        List<String> chemins = new ArrayList<>();
+        for (String[] entree : entrees) {
+            if (accepte.test(entree[0].toLowerCase(Locale.ROOT))) {
+                chemins.add(entree[1].isEmpty() ? entree[0] : entree[1] + File.separator + entree[0]);
+            }
+        }
+        Collections.sort(chemins);
+        return chemins;
+    }
+
+    private static List<String> tries(List<String> chemins) {
+        List<String> copie = new ArrayList<>(chemins);
+        Collections.sort(copie);
+        return copie;
+    }
+
+    @Test
+    void rechercheParSousChaine() {
+        for (String texte : new String[] {"rapport_1", "RAPPORT_1", "port_4", "_123", "1234", "été_9", "dú_3", ".tar",
+                "_49999", "ab", "a", "jpg", "introuvable", "x.c"}) {
+            String cle = texte.toLowerCase(Locale.ROOT);
+            assertEquals(attendus(nom -> nom.contains(cle)), tries(index.rechercherSousChaine(texte, 0)), texte);
+        }
+    }
+
+    @Test
+    void rechercheParPrefixe() {
+        for (String prefixe : new String[] {"photo_1", "Photo_12", "ÉTÉ_4", "ñandú_49", "a", "ab", "zzz", "notes_"}) {
+            String cle = prefixe.toLowerCase(Locale.ROOT);
+            assertEquals(attendus(nom -> nom.startsWith(cle)), tries(index.rechercherPrefixe(prefixe, 0)), prefixe);
+        }
+    }
+
+    @Test
+    void rechercheParMotif() {
+        for (String motif : new String[] {"rapport_1*.pdf", "*_12?4.*", "*.JPG", "?b", "été_*", "*", "*ude*",
+                "budget_?????.tar.gz", "*.tar.gz", "x.?", "photo_*1*2*3*"}) {
+            StringBuilder expression = new StringBuilder();
+            for (char c : motif.toLowerCase(Locale.ROOT).toCharArray()) {
+                expression.append(c == '*' ? ".*" : c == '?' ? "." : Pattern.quote(String.valueOf(c)));
+            }
+            Pattern attendu = Pattern.compile(expression.toString(), Pattern.DOTALL);
+            assertEquals(attendus(nom -> attendu.matcher(nom).matches()), tries(index.chercher(motif, 0)), motif);
+        }
+    }
+
+    @Test
+    void rechercheAleatoireComparee() {
+        // Sous-chaînes tirées des noms indexés : listes rares et fréquentes, intersections, points d'accès
+        Random aleatoire = new Random(11);
+        for (int i = 0; i < 300; i++) {
+            String nom = entrees.get(aleatoire.nextInt(entrees.size()))[0].toLowerCase(Locale.ROOT);
+            int debut = aleatoire.nextInt(nom.length());
+            String texte = nom.substring(debut, Math.min(nom.length(), debut + 3 + aleatoire.nextInt(6)));
+            assertEquals(attendus(n -> n.contains(texte)), tries(index.rechercherSousChaine(texte, 0)), texte);
+            String prefixe = nom.substring(0, Math.min(nom.length(), 1 + aleatoire.nextInt(10)));
+            assertEquals(attendus(n -> n.startsWith(prefixe)), tries(index.rechercherPrefixe(prefixe, 0)), prefixe);
+        }
+    }
+
+    @Test
+    void limiteDesResultats() {
+        assertEquals(100, index.rechercherSousChaine("_1", 100).size());
+        assertEquals(5, index.chercher("*.pdf", 5).size());
+        List<String> tous = index.rechercherPrefixe("ab", 0);
+        assertEquals(4, tous.size());
+        assertEquals(tous.subList(0, 3), index.rechercherPrefixe("ab", 3));
+    }
+
+    @Test
+    void ecritureEtRelecture() throws IOException {
+        Path fichier = dossierTemporaire.resolve("noms.index");
+        index.ecrire(fichier);
+        FileNameIndex relu = FileNameIndex.lire(fichier);
+
+        assertEquals(index.getNombreEntrees(), relu.getNombreEntrees());
+        for (String motif : new String[] {"rapport_1", "_123", "ab", "*.JPG", "été_*", "*_12?4.*", "introuvable"}) {
+            assertEquals(index.chercher(motif, 0), relu.chercher(motif, 0), motif);
+        }
+        assertEquals(index.rechercherPrefixe("notes_4", 0), relu.rechercherPrefixe("notes_4", 0));
+    }
+
+    @Test
+    void relectureDUnFichierQuiNEstPasUnIndex() throws IOException {
+        Path fichier = Files.write(dossierTemporaire.resolve("autre.index"), new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> FileNameIndex.lire(fichier));
+    }
+
+    @Test
+    void constructionDepuisUnScan() {
+        Path racine = Paths.get("/racine");
+        Path archive = racine.resolve("sauvegarde.zip");
+        List<FileInfo> fichiers = new ArrayList<>();
+        fichiers.add(new FileInfo(racine.resolve("rapport.pdf"), "rapport.pdf", "pdf", "application/pdf", "Document", 10, false));
+        fichiers.add(new FileInfo(racine.resolve("docs"), "docs", "", "inode/directory", "Dossier", 0, true));
+        fichiers.add(new FileInfo(archive, "sauvegarde.zip", "zip", "application/zip", "Archive", 20, false));
+        fichiers.add(new FileInfo(archive.resolve("dans/rapport_2.pdf"), "dans/rapport_2.pdf", "pdf", "application/pdf",
+            "Document", 5, false, archive));
+        FileNameIndex indexScan = FileNameIndex.construire(fichiers);
+
+        assertEquals(4, indexScan.getNombreEntrees());
+        assertEquals(List.of(racine + File.separator + "rapport.pdf", archive + File.separator + "dans/rapport_2.pdf"),
+            tries(indexScan.chercher("rapport", 0)));
+        assertTrue(indexScan.chercher("docs", 0).contains(racine + File.separator + "docs"));
+    }
+}
@@ -0,0 +1,157 @@
+package com.filelist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests du scanner sur un système de fichiers simulé ({@link FileSystemLent}) : limitation du débit
+ * des lectures du parcours, reprise d'un scan interrompu.
+ */
+class FileScannerTest {
+    private static final long MS = 1_000_000L;
+
+    @TempDir
+    Path dossierTemporaire;
+
+    /**
+     * Crée une arborescence : 5 fichiers à la racine, 40 dans "a" (dont 10 dans "a/c"), 20 dans "b"
+     */
+    private Path creerArborescence() throws IOException {
+        Path racine = Files.createDirectory(dossierTemporaire.resolve("racine"));
+        creerFichiers(racine, "r", 5);
+        creerFichiers(Files.createDirectory(racine.resolve("a")), "a", 30);
+        creerFichiers(Files.createDirectory(racine.resolve("a").resolve("c")), "c", 10);
+        creerFichiers(Files.createDirectory(racine.resolve("b")), "b", 20);
+        return racine;
+    }
+
+    private static void creerFichiers(Path dossier, String prefixe, int nombre) throws IOException {
+        for (int i = 0; i < nombre; i++) {
+            Files.write(dossier.resolve(prefixe + i + ".txt"), new byte[10 + i]);
+        }
+    }
+
+    /**
+     * @return Le chemin relatif et la taille de chaque élément du résultat, dans l'ordre
+     */
+    private static List<String> decrire(Path racine, List<FileInfo> resultat) {
+        List<String> description = new ArrayList<>();
+        for (FileInfo info : resultat) {
+            description.add(racine.relativize(info.getCheminComplet()) + " " + info.getTailleOctets());
+        }
+        return description;
+    }
+
+    @Test
+    void chaqueLectureDuParcoursEstLimitee() throws IOException {
+        Path racine = creerArborescence();
+        List<String> attendu = decrire(racine, new FileScanner().scannerRepertoire(racine, 1));
+
+        FileSystemLent systeme = new FileSystemLent();
+        Path racineLente = systeme.chemin(racine);
+        IoThrottle limiteur = new IoThrottle(200, Duration.ofSeconds(1));
+        FileScanner scanner = new FileScanner();
+        scanner.setLimiteur(limiteur);
+        long debut = System.nanoTime();
+        List<FileInfo> resultat = scanner.scannerRepertoire(racineLente, 1);
+        long duree = System.nanoTime() - debut;
+
+        assertEquals(attendu, decrire(racineLente, resultat));
+        // Hors des deux vérifications initiales du répertoire, chaque lecture d'attributs ou de dossier
+        // du parcours est précédée d'une autorisation du limiteur
+        long lecturesParcours = systeme.getLectures() - 2;
+        assertTrue(lecturesParcours > 70, "lectures : " + lecturesParcours);
+        assertTrue(lecturesParcours <= limiteur.getOperations(),
+            lecturesParcours + " lectures pour " + limiteur.getOperations() + " autorisations");
+        // Au-delà de la rafale initiale (20 lectures), le débit de 200/s est respecté
+        long dureeMin = (lecturesParcours - 20) * 1_000 * MS / 200;
+        assertTrue(duree >= dureeMin * 9 / 10, "durée : " + duree / MS + " ms, minimum " + dureeMin / MS + " ms");
+        assertEquals(0, limiteur.getRalentissements());
+    }
+
+    @Test
+    void uneLatenceEleveeDuSystemeDeFichiersRalentitLeParcours() throws IOException {
+        Path racine = creerArborescence();
+        List<String> attendu = decrire(racine, new FileScanner().scannerRepertoire(racine, 1));
+
+        FileSystemLent systeme = new FileSystemLent();
+        systeme.setLatence(20 * MS);
+        Path racineLente = systeme.chemin(racine);
+        IoThrottle limiteur = new IoThrottle(1000, Duration.ofMillis(5));
+        FileScanner scanner = new FileScanner();
+        scanner.setLimiteur(limiteur);
+        List<FileInfo> resultat = scanner.scannerRepertoire(racineLente, 1);
+
+        assertEquals(attendu, decrire(racineLente, resultat));
+        // La latence mesurée dans le parcours dépasse le maximum : le débit est réduit
+        assertTrue(limiteur.getOperationsLentes() > 50, "lectures lentes : " + limiteur.getOperationsLentes());
+        assertTrue(limiteur.getRalentissements() >= 2, "ralentissements : " + limiteur.getRalentissements());
+        assertTrue(limiteur.getDebitCourant() <= 250, "débit final : " + limiteur.getDebitCourant());
+    }
+
+    @Test
+    void unScanInterrompuRepriseDonneLeMemeResultatAvecUnLienVersUnDossier() throws IOException {
+        Path racine = Files.createDirectory(dossierTemporaire.resolve("racine"));
+        creerFichiers(racine, "r", 4);
+        creerFichiers(Files.createDirectory(racine.resolve("a")), "a", 8);
+        creerFichiers(Files.createDirectory(racine.resolve("a").resolve("c")), "c", 8);
+        creerFichiers(Files.createDirectory(racine.resolve("a").resolve("d")), "d", 8);
+        creerFichiers(Files.createDirectory(racine.resolve("b")), "b", 8);
+        // Lien vers un dossier dans un sous-dossier de "a" : signalé comme un fichier par le parcours,
+        // il ne doit pas ouvrir de sous-dossier dans le suivi des points de reprise
+        Files.createSymbolicLink(racine.resolve("a").resolve("c").resolve("lien"), racine.resolve("b"));
+        Path reprise = dossierTemporaire.resolve("reprise.bin");
+
+        FileSystemLent systeme = new FileSystemLent();
+        systeme.setLatence(3 * MS);
+        Path racineLente = systeme.chemin(racine);
+        FileScanner complet = new FileScanner();
+        complet.setDedoublonnerLiens(false);
+        List<String> attendu = decrireScan(racineLente, complet, complet.scannerRepertoire(racineLente, 1));
+        long lectures = systeme.getLectures();
+
+        // Arrêt brutal à différents moments du scan (points de reprise aussi fréquents que possible), puis reprise ;
+        // sans dédoublonnage, un fichier compté deux fois après la reprise change le total
+        int reprisesPartielles = 0;
+        for (long panne = 10; panne < lectures; panne += 2) {
+            systeme.setPanneApres(systeme.getLectures() + panne);
+            FileScanner interrompu = new FileScanner();
+            interrompu.setDedoublonnerLiens(false);
+            interrompu.setReprise(reprise, Duration.ZERO);
+            assertThrows(FileSystemLent.Panne.class, () -> interrompu.scannerRepertoire(racineLente, 1));
+            boolean pointEcrit = Files.exists(reprise);
+
+            systeme.setPanneApres(0);
+            FileScanner repris = new FileScanner();
+            repris.setDedoublonnerLiens(false);
+            repris.setReprise(reprise, Duration.ZERO);
+            List<String> resultat = decrireScan(racineLente, repris, repris.scannerRepertoire(racineLente, 1));
+            assertEquals(attendu, resultat, "reprise après " + panne + " lectures");
+            if (pointEcrit) {
+                reprisesPartielles++;
+            }
+        }
+        assertTrue(reprisesPartielles > 5, "reprises d'un point de reprise : " + reprisesPartielles);
+    }
+
+    /**
+     * @return La description du résultat, suivie des totaux des statistiques
+     */
+    private static List<String> decrireScan(Path racine, FileScanner scanner, List<FileInfo> resultat) {
+        List<String> description = decrire(racine, resultat);
+        ScanStatistics statistiques = scanner.getStatistiques();
+        description.add("total " + statistiques.getTotal().getNombre() + " " + statistiques.getTotal().getOctets());
+        description.add("doublons " + scanner.getNombreDoublons());
+        return description;
+    }
+}
@@ -0,0 +1,423 @@
+package com.filelist;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AccessMode;
+import java.nio.file.CopyOption;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.FileAttributeView;
+import java.nio.file.attribute.UserPrincipalLookupService;
+import java.nio.file.spi.FileSystemProvider;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Système de fichiers simulé pour les tests : enveloppe le système de fichiers par défaut en ajoutant
+ * une latence à chaque lecture de métadonnées (attributs, ouverture d'un dossier), et peut simuler
+ * l'arrêt brutal du processus après un nombre donné de lectures ({@link Panne}).
+ */
+final class FileSystemLent extends FileSystem {
+    private final FileSystem base = FileSystems.getDefault();
+    private final Fournisseur fournisseur = new Fournisseur();
+    private final AtomicLong lectures = new AtomicLong();
+    private volatile long latence;
+    private volatile long panneApres;
+
+    /**
+     * @return Le chemin de ce système de fichiers correspondant à un chemin réel
+     */
+    Path chemin(Path reel) {
+        return new Chemin(reel);
+    }
+
+    /**
+     * @param latence La latence de chaque lecture de métadonnées, en nanosecondes
+     */
+    void setLatence(long latence) {
+        this.latence = latence;
+    }
+
+    /**
+     * Simule l'arrêt du processus : la lecture suivant la n-ième lève {@link Panne} (0 = jamais)
+     */
+    void setPanneApres(long lectures) {
+        this.panneApres = lectures;
+    }
+
+    /**
+     * @return Le nombre de lectures de métadonnées effectuées
+     */
+    long getLectures() {
+        return lectures.get();
+    }
+
+    private void lire() {
+        long numero = lectures.incrementAndGet();
+        if (panneApres > 0 && numero > panneApres) {
+            throw new Panne();
+        }
+        long duree = latence;
+        if (duree > 0) {
+            try {
+                Thread.sleep(duree / 1_000_000, (int) (duree % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Path reel(Path chemin) {
+        return ((Chemin) chemin).reel;
+    }
+
+    @Override
+    public FileSystemProvider provider() {
+        return fournisseur;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    @Override
+    public String getSeparator() {
+        return base.getSeparator();
+    }
+
+    @Override
+    public Iterable<Path> getRootDirectories() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterable<FileStore> getFileStores() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<String> supportedFileAttributeViews() {
+        return base.supportedFileAttributeViews();
+    }
+
+    @Override
+    public Path getPath(String premier, String... suite) {
+        return new Chemin(base.getPath(premier, suite));
+    }
+
+    @Override
+    public PathMatcher getPathMatcher(String syntaxeEtMotif) {
+        PathMatcher motif = base.getPathMatcher(syntaxeEtMotif);
+        return chemin -> motif.matches(reel(chemin));
+    }
+
+    @Override
+    public UserPrincipalLookupService getUserPrincipalLookupService() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public WatchService newWatchService() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Arrêt brutal simulé : une erreur, pour ne pas être traitée comme une erreur de lecture
+     */
+    static final class Panne extends Error {
+        Panne() {
+            super("Arrêt simulé");
+        }
+    }
+
+    /**
+     * Chemin enveloppant un chemin réel
+     */
+    private final class Chemin implements Path {
+        private final Path reel;
+
+        Chemin(Path reel) {
+            this.reel = reel;
+        }
+
+        private Path envelopper(Path chemin) {
+            return chemin != null ? new Chemin(chemin) : null;
+        }
+
+        @Override
+        public FileSystem getFileSystem() {
+            return FileSystemLent.this;
+        }
+
+        @Override
+        public boolean isAbsolute() {
+            return reel.isAbsolute();
+        }
+
+        @Override
+        public Path getRoot() {
+            return envelopper(reel.getRoot());
+        }
+
+        @Override
+        public Path getFileName() {
+            return envelopper(reel.getFileName());
+        }
+
+        @Override
+        public Path getParent() {
+            return envelopper(reel.getParent());
+        }
+
+        @Override
+        public int getNameCount() {
+            return reel.getNameCount();
+        }
+
+        @Override
+        public Path getName(int index) {
+            return envelopper(reel.getName(index));
+        }
+
+        @Override
+        public Path subpath(int debut, int fin) {
+            return envelopper(reel.subpath(debut, fin));
+        }
+
+        @Override
+        public boolean startsWith(Path autre) {
+            return autre instanceof Chemin && reel.startsWith(reel(autre));
+        }
+
+        @Override
+        public boolean endsWith(Path autre) {
+            return autre instanceof Chemin && reel.endsWith(reel(autre));
+        }
+
+        @Override
+        public Path normalize() {
+            return envelopper(reel.normalize());
+        }
+
+        @Override
+        public Path resolve(Path autre) {
+            return envelopper(reel.resolve(reel(autre)));
+        }
+
+        @Override
+        public Path relativize(Path autre) {
+            return envelopper(reel.relativize(reel(autre)));
+        }
+
+        @Override
+        public URI toUri() {
+            return reel.toUri();
+        }
+
+        @Override
+        public Path toAbsolutePath() {
+            return envelopper(reel.toAbsolutePath());
+        }
+
+        @Override
+        public Path toRealPath(LinkOption... options) throws IOException {
+            lire();
+            return envelopper(reel.toRealPath(options));
+        }
+
+        @Override
+        public WatchKey register(WatchService service, WatchEvent.Kind<?>[] evenements, WatchEvent.Modifier... modificateurs) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int compareTo(Path autre) {
+            return reel.compareTo(reel(autre));
+        }
+
+        @Override
+        public boolean equals(Object autre) {
+            return autre instanceof Chemin && reel.equals(((Chemin) autre).reel);
+        }
+
+        @Override
+        public int hashCode() {
+            return reel.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return reel.toString();
+        }
+    }
+
+    /**
+     * Fournisseur délégant au système de fichiers par défaut, avec latence des lectures de métadonnées
+     */
+    private final class Fournisseur extends FileSystemProvider {
+        private final FileSystemProvider delegue = base.provider();
+
+        @Override
+        public String getScheme() {
+            return "lent";
+        }
+
+        @Override
+        public FileSystem newFileSystem(URI uri, Map<String, ?> env) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileSystem getFileSystem(URI uri) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Path getPath(URI uri) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SeekableByteChannel newByteChannel(Path chemin, Set<? extends OpenOption> options,
+                                                  FileAttribute<?>... attributs) throws IOException {
+            return delegue.newByteChannel(reel(chemin), options, attributs);
+        }
+
+        @Override
+        public FileChannel newFileChannel(Path chemin, Set<? extends OpenOption> options,
+                                          FileAttribute<?>... attributs) throws IOException {
+            return delegue.newFileChannel(reel(chemin), options, attributs);
+        }
+
+        @Override
+        public DirectoryStream<Path> newDirectoryStream(Path dossier, DirectoryStream.Filter<? super Path> filtre)
+                throws IOException {
+            lire();
+            DirectoryStream<Path> flux = delegue.newDirectoryStream(reel(dossier), p -> filtre.accept(new Chemin(p)));
+            return new DirectoryStream<Path>() {
+                @Override
+                public Iterator<Path> iterator() {
+                    Iterator<Path> elements = flux.iterator();
+                    return new Iterator<Path>() {
+                        @Override
+                        public boolean hasNext() {
+                            return elements.hasNext();
+                        }
+
+                        @Override
+                        public Path next() {
+                            return new Chemin(elements.next());
+                        }
+                    };
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flux.close();
+                }
+            };
+        }
+
+        @Override
+        public void createDirectory(Path dossier, FileAttribute<?>... attributs) throws IOException {
+            delegue.createDirectory(reel(dossier), attributs);
+        }
+
+        @Override
+        public void createSymbolicLink(Path lien, Path cible, FileAttribute<?>... attributs) throws IOException {
+            delegue.createSymbolicLink(reel(lien), reel(cible), attributs);
+        }
+
+        @Override
+        public Path readSymbolicLink(Path lien) throws IOException {
+            lire();
+            return new Chemin(delegue.readSymbolicLink(reel(lien)));
+        }
+
+        @Override
+        public void delete(Path chemin) throws IOException {
+            delegue.delete(reel(chemin));
+        }
+
+        @Override
+        public void copy(Path source, Path cible, CopyOption... options) throws IOException {
+            delegue.copy(reel(source), reel(cible), options);
+        }
+
+        @Override
+        public void move(Path source, Path cible, CopyOption... options) throws IOException {
+            delegue.move(reel(source), reel(cible), options);
+        }
+
+        @Override
+        public boolean isSameFile(Path chemin, Path autre) throws IOException {
+            lire();
+            return delegue.isSameFile(reel(chemin), reel(autre));
+        }
+
+        @Override
+        public boolean isHidden(Path chemin) throws IOException {
+            return delegue.isHidden(reel(chemin));
+        }
+
+        @Override
+        public FileStore getFileStore(Path chemin) throws IOException {
+            return delegue.getFileStore(reel(chemin));
+        }
+
+        @Override
+        public void checkAccess(Path chemin, AccessMode... modes) throws IOException {
+            lire();
+            delegue.checkAccess(reel(chemin), modes);
+        }
+
+        @Override
+        public <V extends FileAttributeView> V getFileAttributeView(Path chemin, Class<V> type, LinkOption... options) {
+            return delegue.getFileAttributeView(reel(chemin), type, options);
+        }
+
+        @Override
+        public <A extends BasicFileAttributes> A readAttributes(Path chemin, Class<A> type, LinkOption... options)
+                throws IOException {
+            lire();
+            return delegue.readAttributes(reel(chemin), type, options);
+        }
+
+        @Override
+        public Map<String, Object> readAttributes(Path chemin, String attributs, LinkOption... options)
+                throws IOException {
+            lire();
+            return delegue.readAttributes(reel(chemin), attributs, options);
+        }
+
+        @Override
+        public void setAttribute(Path chemin, String attribut, Object valeur, LinkOption... options) throws IOException {
+            delegue.setAttribute(reel(chemin), attribut, valeur, options);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.filelist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests de la limitation adaptative du débit, avec une horloge simulée : les attentes et les
+ * latences font avancer le temps sans attendre réellement.
+ */
+class IoThrottleTest {
+    private static final long MS = 1_000_000L;
+
+    /**
+     * Horloge simulée, avancée par les attentes du limiteur et par les opérations
+     */
+    private static final class HorlogeSimulee {
+        private long maintenant = 1_000 * MS;
+
+        void avancer(long nanos) {
+            maintenant += nanos;
+        }
+    }
+
+    private static IoThrottle limiteur(HorlogeSimulee horloge, double debit, Duration latenceMax) {
+        return new IoThrottle(debit, latenceMax, () -> horloge.maintenant, horloge::avancer);
+    }
+
+    /**
+     * Exécute des opérations de latence fixe pendant une durée simulée
+     */
+    private static void executer(IoThrottle limiteur, HorlogeSimulee horloge, long latence, long duree) {
+        long fin = horloge.maintenant + duree;
+        while (horloge.maintenant < fin) {
+            limiteur.acquerir();
+            horloge.avancer(latence);
+            limiteur.mesurer(latence);
+        }
+    }
+
+    @Test
+    void limiteLeDebitAuMaximum() {
+        HorlogeSimulee horloge = new HorlogeSimulee();
+        IoThrottle limiteur = limiteur(horloge, 1000, Duration.ofMillis(10));
+
+        executer(limiteur, horloge, 0, 10_000 * MS);
+
+        // Rafale initiale (capacité de 100 ms) comprise, le débit obtenu reste à la limite
+        assertEquals(1000, limiteur.getDebitObtenu(), 15);
+        assertEquals(1000, limiteur.getDebitCourant());
+        assertEquals(0, limiteur.getRalentissements());
+    }
+
+    @Test
+    void ralentitQuandLaLatenceDepasseLeMaximumPuisRemonte() {
+        HorlogeSimulee horloge = new HorlogeSimulee();
+        IoThrottle limiteur = limiteur(horloge, 1000, Duration.ofMillis(10));
+
+        // Opérations rapides : débit maximal conservé
+        executer(limiteur, horloge, MS, 1_000 * MS);
+        assertEquals(1000, limiteur.getDebitCourant());
+
+        // Opérations lentes : le débit est réduit plusieurs fois, sans descendre sous 1 % de la limite
+        executer(limiteur, horloge, 50 * MS, 2_000 * MS);
+        double debitRalenti = limiteur.getDebitCourant();
+        assertTrue(debitRalenti <= 250, "débit après ralentissement : " + debitRalenti);
+        assertTrue(debitRalenti >= 10, "débit après ralentissement : " + debitRalenti);
+        assertTrue(limiteur.getRalentissements() >= 2);
+        long ralentissements = limiteur.getRalentissements();
+
+        // Latence revenue sous le maximum : remontée de 5 % de la limite par seconde
+        executer(limiteur, horloge, MS, 5_000 * MS);
+        double debitRemonte = limiteur.getDebitCourant();
+        assertTrue(debitRemonte > debitRalenti + 200 && debitRemonte < 1000, "débit après 5 s : " + debitRemonte);
+        executer(limiteur, horloge, MS, 20_000 * MS);
+        assertEquals(1000, limiteur.getDebitCourant());
+        assertEquals(ralentissements, limiteur.getRalentissements());
+    }
+
+    @Test
+    void uneRafaleDOperationsLentesNeRalentitQuUneFois() {
+        HorlogeSimulee horloge = new HorlogeSimulee();
+        IoThrottle limiteur = limiteur(horloge, 1000, Duration.ofMillis(10));
+
+        // Opérations lentes simultanées (mesurées sans avancer l'horloge) : une seule réduction
+        for (int i = 0; i < 20; i++) {
+            limiteur.acquerir();
+            limiteur.mesurer(50 * MS);
+        }
+        assertEquals(1, limiteur.getRalentissements());
+        assertEquals(500, limiteur.getDebitCourant());
+        assertEquals(20, limiteur.getOperationsLentes());
+    }
+}
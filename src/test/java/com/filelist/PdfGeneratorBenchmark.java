@@ -0,0 +1,100 @@
+package com.filelist;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Banc d'essai du mode PDF optimisé : génère le même PDF de 100 000 lignes dans les deux modes
+ * et compare la taille des fichiers et le temps de génération à l'objectif de 3x.
+ *
+ * Les noms sont synthétiques mais reproductibles (graine fixe), avec un mélange de mots,
+ * de numéros et d'extensions courantes proche d'une arborescence réelle.
+ *
+ * Lancement : {@code mvn -q test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.filelist.PdfGeneratorBenchmark [-Dexec.args="lignes répétitions"]}
+ */
+public class PdfGeneratorBenchmark {
+    private static final String[] MOTS = {
+        "rapport", "photo", "facture", "sauvegarde", "projet", "notes", "image", "contrat", "budget",
+        "presentation", "source", "test", "donnees", "archive", "export", "video", "musique", "config"
+    };
+    private static final String[] EXTENSIONS = {
+        "pdf", "jpg", "png", "docx", "xlsx", "txt", "java", "py", "mp4", "mp3", "zip", "json", "xml", "csv"
+    };
+    private static final double OBJECTIF = 3.0;
+
+    public static void main(String[] args) throws IOException {
+        int nombreLignes = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        List<FileInfo> fichiers = genererFichiers(nombreLignes);
+        Path dossier = Files.createTempDirectory("pdf-benchmark");
+
+        Mesure standard = mesurer(fichiers, dossier.resolve("standard.pdf"), false, repetitions);
+        Mesure optimise = mesurer(fichiers, dossier.resolve("optimise.pdf"), true, repetitions);
+
+        System.out.println(nombreLignes + " lignes, " + repetitions + " répétitions par mode");
+        System.out.println("  standard : " + standard);
+        System.out.println("  optimisé : " + optimise);
+        double gainTaille = (double) standard.octets / optimise.octets;
+        double gainTemps = (double) standard.meilleurTemps / optimise.meilleurTemps;
+        System.out.printf("  gain : taille %.2fx, temps %.2fx (objectif %.1fx : écart %.2fx en taille, %.2fx en temps)%n",
+            gainTaille, gainTemps, OBJECTIF, OBJECTIF / gainTaille, OBJECTIF / gainTemps);
+    }
+
+    /**
+     * Génère la liste des fichiers (graine fixe : la même liste à chaque lancement)
+     */
+    static List<FileInfo> genererFichiers(int nombre) {
+        Random aleatoire = new Random(42);
+        Path racine = Paths.get("/banc");
+        List<FileInfo> fichiers = new ArrayList<>(nombre);
+        for (int i = 0; i < nombre; i++) {
+            String extension = EXTENSIONS[aleatoire.nextInt(EXTENSIONS.length)];
+            String nom = MOTS[aleatoire.nextInt(MOTS.length)] + "_" + MOTS[aleatoire.nextInt(MOTS.length)]
+                + "_" + aleatoire.nextInt(10_000) + "." + extension;
+            String typeMime = MimeTypeDetector.detecterTypeMimeParExtension(nom);
+            long taille = (long) Math.exp(aleatoire.nextDouble() * 20);
+            Path chemin = racine.resolve("d" + aleatoire.nextInt(100)).resolve(nom);
+            fichiers.add(new FileInfo(chemin, nom, extension, typeMime,
+                MimeTypeDetector.determinerCategorie(typeMime), taille, false));
+        }
+        return fichiers;
+    }
+
+    private static Mesure mesurer(List<FileInfo> fichiers, Path sortie, boolean modeOptimise, int repetitions)
+            throws IOException {
+        PdfGenerator generateur = new PdfGenerator();
+        generateur.setModeOptimise(modeOptimise);
+        ScanStatistics statistiques = ScanStatistics.depuis(fichiers, Paths.get("/banc"));
+        Mesure mesure = new Mesure();
+        for (int i = 0; i < repetitions; i++) {
+            Files.deleteIfExists(sortie);
+            long debut = System.nanoTime();
+            generateur.genererPdf(new ArrayList<>(fichiers), Paths.get("/banc"), sortie, statistiques);
+            long duree = (System.nanoTime() - debut) / 1_000_000;
+            if (i == 0) {
+                mesure.premierTemps = duree;
+            }
+            mesure.meilleurTemps = Math.min(mesure.meilleurTemps, duree);
+        }
+        mesure.octets = Files.size(sortie);
+        return mesure;
+    }
+
+    private static final class Mesure {
+        long octets;
+        long premierTemps;
+        long meilleurTemps = Long.MAX_VALUE;
+
+        @Override
+        public String toString() {
+            return String.format("%.2f Mo, %d ms au premier passage, %d ms au meilleur",
+                octets / (1024.0 * 1024.0), premierTemps, meilleurTemps);
+        }
+    }
+}
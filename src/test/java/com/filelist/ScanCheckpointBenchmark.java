@@ -0,0 +1,89 @@
+package com.filelist;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Banc d'essai des points de reprise : scanne la même arborescence synthétique (100 000 fichiers par défaut,
+ * dans 20 dossiers de premier niveau) sans point de reprise, avec l'intervalle de {@code --reprise} (30 s),
+ * puis avec un intervalle nul (écritures aussi fréquentes que le permet l'espacement du scanner), et compare
+ * le temps du scan à l'objectif d'un surcoût de quelques pour cent.
+ *
+ * Les modes sont alternés à chaque répétition et le meilleur temps est retenu, le cache du système
+ * de fichiers étant chaud après le premier passage.
+ *
+ * Lancement : {@code mvn -q test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.filelist.ScanCheckpointBenchmark [-Dexec.args="fichiers répétitions"]}
+ */
+public class ScanCheckpointBenchmark {
+    private static final double OBJECTIF_POURCENT = 3.0;
+
+    public static void main(String[] args) throws IOException {
+        int nombreFichiers = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Path dossier = Files.createTempDirectory("reprise-benchmark");
+        try {
+            Path racine = genererArborescence(dossier.resolve("racine"), nombreFichiers);
+            Path fichierReprise = dossier.resolve("reprise.bin");
+
+            long[] meilleurs = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+            Duration[] intervalles = {null, Duration.ofSeconds(30), Duration.ZERO};
+            for (int i = 0; i < repetitions; i++) {
+                for (int mode = 0; mode < intervalles.length; mode++) {
+                    meilleurs[mode] = Math.min(meilleurs[mode], mesurer(racine, fichierReprise, intervalles[mode]));
+                }
+            }
+
+            System.out.println(nombreFichiers + " fichiers, " + repetitions + " répétitions par mode");
+            System.out.printf("  sans point de reprise       : %d ms%n", meilleurs[0] / 1_000_000);
+            afficher("intervalle de 30 s", meilleurs[1], meilleurs[0]);
+            afficher("intervalle nul", meilleurs[2], meilleurs[0]);
+        } finally {
+            try (Stream<Path> chemins = Files.walk(dossier)) {
+                chemins.sorted(Comparator.reverseOrder()).forEach(chemin -> chemin.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Génère l'arborescence (graine fixe) : 20 dossiers de premier niveau, chacun avec des sous-dossiers
+     * sur trois niveaux, les fichiers étant répartis au hasard entre tous les dossiers
+     */
+    private static Path genererArborescence(Path racine, int nombreFichiers) throws IOException {
+        Random aleatoire = new Random(42);
+        Path[] dossiers = new Path[20 * 10 * 5];
+        for (int i = 0; i < dossiers.length; i++) {
+            dossiers[i] = Files.createDirectories(racine.resolve("d" + i / 50).resolve("s" + i / 5 % 10).resolve("t" + i % 5));
+        }
+        for (int i = 0; i < nombreFichiers; i++) {
+            Path fichier = dossiers[aleatoire.nextInt(dossiers.length)].resolve("fichier_" + i + ".txt");
+            Files.write(fichier, new byte[aleatoire.nextInt(64)]);
+        }
+        return racine;
+    }
+
+    /**
+     * @param intervalle L'intervalle entre deux points de reprise (null sans point de reprise)
+     * @return La durée du scan, en nanosecondes
+     */
+    private static long mesurer(Path racine, Path fichierReprise, Duration intervalle) throws IOException {
+        FileScanner scanner = new FileScanner();
+        if (intervalle != null) {
+            scanner.setReprise(fichierReprise, intervalle);
+        }
+        long debut = System.nanoTime();
+        scanner.scannerRepertoire(racine, 1);
+        return System.nanoTime() - debut;
+    }
+
+    private static void afficher(String mode, long duree, long reference) {
+        double surcout = 100.0 * (duree - reference) / reference;
+        System.out.printf("  %-27s : %d ms, surcoût %+.1f %% (objectif %.0f %%)%n",
+            mode, duree / 1_000_000, surcout, OBJECTIF_POURCENT);
+    }
+}